@@ -0,0 +1,85 @@
+package hexlet.code;
+
+import hexlet.code.component.JWTHelper;
+import hexlet.code.dto.UserDto;
+import hexlet.code.model.User;
+import hexlet.code.service.UserService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
+
+// Нагрузочный тест: сравнивает пропускную способность и p99 (режим SampleTime)
+// с пулом платформенных потоков Tomcat и с виртуальными потоками
+@Fork(1)
+@Threads(256)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadModeLoadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .properties(
+                        "server.port=0",
+                        "virtual-threads.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false"
+                )
+                .run();
+
+        final User user = context.getBean(UserService.class)
+                .createNewUser(new UserDto("load@example.com", "load", "load", "pwd"));
+        final String token = context.getBean(JWTHelper.class)
+                .expiring(Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, user.getId().toString()));
+        final String port = context.getEnvironment().getProperty("local.server.port");
+        final String baseUrl = context.getEnvironment().getProperty("base-url");
+
+        httpClient = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + baseUrl + "/users/" + user.getId()))
+                .header(AUTHORIZATION, "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,54 @@
+package hexlet.code.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
+
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JWTHelperBenchmark {
+
+    private static final Map<String, Object> ATTRIBUTES = Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, "1");
+
+    private JWTHelper jwtHelper;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtHelper = new JWTHelper("spring_blog", 86400L, 300L, "secret");
+        tokenCache = new VerifiedTokenCache(jwtHelper, 300L, 10000L, new SimpleMeterRegistry());
+        token = jwtHelper.expiring(ATTRIBUTES);
+    }
+
+    @Benchmark
+    public String expiring() {
+        return jwtHelper.expiring(ATTRIBUTES);
+    }
+
+    @Benchmark
+    public Map<String, Object> verify() {
+        return jwtHelper.verify(token);
+    }
+
+    @Benchmark
+    public Map<String, Object> verifyCached() {
+        return tokenCache.verify(token);
+    }
+}
@@ -0,0 +1,90 @@
+package hexlet.code.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private List<User> users;
+    private List<TaskStatus> taskStatuses;
+    private List<Label> labels;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        users = LongStream.range(0, size).mapToObj(SerializationBenchmark::user).toList();
+        taskStatuses = LongStream.range(0, size)
+                .mapToObj(i -> TaskStatus.builder().name("status " + i).build())
+                .toList();
+        labels = LongStream.range(0, size)
+                .mapToObj(i -> Label.builder().name("label " + i).build())
+                .toList();
+        tasks = LongStream.range(0, size)
+                .mapToObj(i -> Task.builder()
+                        .name("task " + i)
+                        .description("description of task " + i)
+                        .author(users.get((int) i))
+                        .executor(users.get((int) i))
+                        .taskStatus(taskStatuses.get((int) i))
+                        .labels(Set.of(labels.get((int) i)))
+                        .build())
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] users() throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] taskStatuses() throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(taskStatuses);
+    }
+
+    @Benchmark
+    public byte[] labels() throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(labels);
+    }
+
+    @Benchmark
+    public byte[] tasks() throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(tasks);
+    }
+
+    private static User user(final long id) {
+        final User user = new User(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFirstName("first name " + id);
+        user.setLastName("last name " + id);
+        user.setPassword("password");
+        user.setCreatedAt(new Date());
+        return user;
+    }
+}
@@ -0,0 +1,107 @@
+package hexlet.code.service;
+
+import hexlet.code.AppApplication;
+import hexlet.code.dto.TaskDto;
+import hexlet.code.dto.UserDto;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static hexlet.code.config.security.SecurityConfig.DEFAULT_AUTHORITIES;
+
+// Результат в ops/s равен числу вставленных строк в секунду благодаря @OperationsPerInvocation
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskBatchBenchmark {
+
+    private static final int ROWS = 500;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskBatchService taskBatchService;
+    private TaskRepository taskRepository;
+    private List<TaskDto> dtos;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false"
+                )
+                .run();
+        taskService = context.getBean(TaskService.class);
+        taskBatchService = context.getBean(TaskBatchService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+
+        final var author = context.getBean(UserService.class)
+                .createNewUser(new UserDto("bench@example.com", "bench", "bench", "pwd"));
+        final TaskStatus taskStatus = context.getBean(TaskStatusRepository.class)
+                .save(TaskStatus.builder().name("new").build());
+
+        // Потоки JMH не совпадают с потоком @Setup, поэтому контекст безопасности общий
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                author.getId().toString(),
+                null,
+                DEFAULT_AUTHORITIES
+        ));
+
+        dtos = IntStream.range(0, ROWS)
+                .mapToObj(i -> {
+                    final TaskDto dto = new TaskDto();
+                    dto.setName("task " + i);
+                    dto.setDescription("description " + i);
+                    dto.setTaskStatusId(taskStatus.getId());
+                    return dto;
+                })
+                .toList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        taskRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void oneByOne() {
+        dtos.forEach(taskService::createNewTask);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public TaskBatchResult batch() {
+        return taskBatchService.createTasks(dtos);
+    }
+}
@@ -0,0 +1,121 @@
+package hexlet.code.service;
+
+import hexlet.code.AppApplication;
+import hexlet.code.component.TaskChangeListener;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.dto.UserDto;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskStatusRepository;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static hexlet.code.model.QTask.task;
+
+// Поиск по словам: обратный индекс против containsIgnoreCase (LIKE '%..%') на 1M задач.
+// term7 как префикс совпадает с ~11% задач, term999 - редкое слово, два слова - пересечение
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskSearchBenchmark {
+
+    private static final int TASKS = 1_000_000;
+    private static final int VOCABULARY = 1000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int LIMIT = 100;
+
+    @Param({"term7", "term999", "term12 term999"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private TaskSearchService taskSearchService;
+    private TaskSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false"
+                )
+                .run();
+        taskSearchService = context.getBean(TaskSearchService.class);
+        searchIndex = context.getBean(TaskSearchIndex.class);
+
+        final var author = context.getBean(UserService.class)
+                .createNewUser(new UserDto("bench@example.com", "bench", "bench", "pwd"));
+        final TaskStatus taskStatus = context.getBean(TaskStatusRepository.class)
+                .save(TaskStatus.builder().name("new").build());
+
+        final JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < TASKS; from += INSERT_BATCH) {
+            final List<Object[]> rows = IntStream.range(from, from + INSERT_BATCH)
+                    .mapToObj(i -> new Object[] {
+                        "task " + i + " " + word(i),
+                        "description " + word(i * 7) + " " + word(i * 13),
+                        author.getId(),
+                        taskStatus.getId(),
+                        now
+                    })
+                    .toList();
+            jdbcTemplate.batchUpdate(
+                    "insert into tasks (name, description, author_id, task_status_id, created_at) "
+                            + "values (?, ?, ?, ?, ?)",
+                    rows
+            );
+        }
+
+        // Вставка шла в обход Hibernate, поэтому индекс строится заново, как при старте
+        context.getBean(TaskChangeListener.class).rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> indexOnly() {
+        return searchIndex.search(query);
+    }
+
+    @Benchmark
+    public List<Task> indexEndpoint() {
+        return taskSearchService.search(null, query, LIMIT, new QueryCancellation());
+    }
+
+    @Benchmark
+    public TaskPage likeEndpoint() {
+        final var words = TaskSearchIndex.tokenize(query)
+                .map(word -> task.name.containsIgnoreCase(word).or(task.description.containsIgnoreCase(word)))
+                .reduce((left, right) -> left.and(right))
+                .orElseThrow();
+        return taskSearchService.findPage(words, null, LIMIT, new QueryCancellation());
+    }
+
+    private static String word(final int i) {
+        return "term" + Math.floorMod(i, VOCABULARY);
+    }
+}
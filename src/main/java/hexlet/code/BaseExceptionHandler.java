@@ -1,10 +1,19 @@
 package hexlet.code;
 
+import hexlet.code.component.PasswordHashingRejectedException;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,10 +22,13 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
@@ -37,7 +49,7 @@ public class BaseExceptionHandler {
     }
 
     @ResponseStatus(BAD_REQUEST)
-    @ExceptionHandler({HttpMessageNotReadableException.class})
+    @ExceptionHandler({HttpMessageNotReadableException.class, InvalidRequestException.class})
     public String validationExceptionsHandler(Exception exception) {
         return exception.getMessage();
     }
@@ -48,6 +60,16 @@ public class BaseExceptionHandler {
         return exception.getAllErrors();
     }
 
+    @ResponseStatus(UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(ConstraintViolationException.class)
+    public List<String> constraintViolationHandler(ConstraintViolationException exception) {
+        return exception.getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
     @ResponseStatus(UNPROCESSABLE_ENTITY)
     @ExceptionHandler(DataIntegrityViolationException.class)
     public String validationExceptionsHandler(DataIntegrityViolationException exception) {
@@ -56,6 +78,12 @@ public class BaseExceptionHandler {
                 .getMessage();
     }
 
+    @ResponseStatus(PRECONDITION_FAILED)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public String optimisticLockingFailureHandler(OptimisticLockingFailureException exception) {
+        return exception.getMessage();
+    }
+
     @ResponseStatus(FORBIDDEN)
     @ExceptionHandler(AccessDeniedException.class)
     public String accessDeniedException(AccessDeniedException exception) {
@@ -63,8 +91,27 @@ public class BaseExceptionHandler {
     }
 
     @ResponseStatus(UNAUTHORIZED)
-    @ExceptionHandler(UsernameNotFoundException.class)
-    public String userNitFoundExceptionHandler(UsernameNotFoundException exception) {
+    @ExceptionHandler({UsernameNotFoundException.class, BadCredentialsException.class})
+    public String userNitFoundExceptionHandler(AuthenticationException exception) {
+        return exception.getMessage();
+    }
+
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public String passwordHashingRejectedHandler(PasswordHashingRejectedException exception,
+                                                 HttpServletResponse response) {
+        response.setHeader(RETRY_AFTER, String.valueOf(exception.getRetryAfterSec()));
+        return exception.getMessage();
+    }
+
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    @ExceptionHandler({
+        QueryTimeoutException.class,
+        javax.persistence.QueryTimeoutException.class,
+        CancellationException.class,
+        TaskRejectedException.class
+    })
+    public String queryTimeoutHandler(Exception exception) {
         return exception.getMessage();
     }
 }
@@ -0,0 +1,14 @@
+package hexlet.code;
+
+// Некорректные параметры запроса: курсор, размер страницы, тело и т.п. Отвечаем 400.
+// IllegalArgumentException для этого не подходит - им же сообщают об ошибках в коде
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(final String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,91 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Ограничение частоты запросов по пользователю (или IP для входа и регистрации)
+// и общий предел одновременно обрабатываемых запросов
+@Component
+public class AdmissionControl {
+
+    private final Cache<String, TokenBucket> userBuckets;
+    private final Cache<String, TokenBucket> publicBuckets;
+    private final double userRate;
+    private final int userBurst;
+    private final double publicRate;
+    private final int publicBurst;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionControl(@Value("${rate-limit.user.rate-per-sec:20}") final double userRate,
+                            @Value("${rate-limit.user.burst:40}") final int userBurst,
+                            @Value("${rate-limit.public.rate-per-sec:0.2}") final double publicRate,
+                            @Value("${rate-limit.public.burst:5}") final int publicBurst,
+                            @Value("${rate-limit.max-in-flight:200}") final int maxInFlight,
+                            @Value("${rate-limit.max-tracked-keys:100000}") final long maxKeys,
+                            final MeterRegistry meterRegistry) {
+        this.userRate = userRate;
+        this.userBurst = userBurst;
+        this.publicRate = publicRate;
+        this.publicBurst = publicBurst;
+        this.maxInFlight = maxInFlight;
+        this.userBuckets = buckets(userRate, userBurst, maxKeys);
+        this.publicBuckets = buckets(publicRate, publicBurst, maxKeys);
+
+        this.rateLimited = Counter.builder("admission.rejected").tag("reason", "rate-limit").register(meterRegistry);
+        this.shed = Counter.builder("admission.rejected").tag("reason", "overload").register(meterRegistry);
+        Gauge.builder("admission.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // Время в секундах до появления токена, 0 - запрос пропускается
+    public long acquireForUser(final String userId) {
+        return acquire(userBuckets, userId, userRate, userBurst);
+    }
+
+    public long acquireForClient(final String clientAddress) {
+        return acquire(publicBuckets, clientAddress, publicRate, publicBurst);
+    }
+
+    public boolean enter() {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    private long acquire(final Cache<String, TokenBucket> buckets, final String key,
+                         final double rate, final int burst) {
+        final long now = System.nanoTime();
+        final long wait = buckets.get(key, k -> new TokenBucket(rate, burst, now)).tryAcquire(now);
+        if (wait == 0) {
+            return 0;
+        }
+        rateLimited.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    // Ведро, простоявшее дольше времени полного пополнения, неотличимо от нового, поэтому вытеснение
+    // по простою ничего не меняет, а размер ограничивает память при переборе ключей
+    private static Cache<String, TokenBucket> buckets(final double rate, final int burst, final long maxKeys) {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(new TokenBucket(rate, burst, 0).refillNanos()))
+                .maximumSize(maxKeys)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package hexlet.code.component;
+
+import com.querydsl.core.types.Predicate;
+import hexlet.code.model.Task;
+import hexlet.code.service.QueryCancellation;
+import hexlet.code.service.TaskPage;
+import hexlet.code.service.TaskSearchService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static hexlet.code.config.TaskSearchExecutorConfiguration.TASK_SEARCH_EXECUTOR;
+
+@Component
+public class AsyncTaskSearch {
+
+    private final TaskSearchService taskSearchService;
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMillis;
+
+    public AsyncTaskSearch(final TaskSearchService taskSearchService,
+                           @Qualifier(TASK_SEARCH_EXECUTOR) final AsyncTaskExecutor executor,
+                           @Value("${tasks.search.timeout-ms:5000}") final long timeoutMillis) {
+        this.taskSearchService = taskSearchService;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public <T> DeferredResult<T> findPage(final Predicate predicate,
+                                          final String cursor,
+                                          final int limit,
+                                          final Function<TaskPage, T> toResult) {
+        return submit(cancellation -> taskSearchService.findPage(predicate, cursor, limit, cancellation), toResult);
+    }
+
+    public DeferredResult<List<Task>> search(final Predicate predicate, final String query, final int limit) {
+        return submit(cancellation -> taskSearchService.search(predicate, query, limit, cancellation),
+                Function.identity());
+    }
+
+    private <R, T> DeferredResult<T> submit(final Function<QueryCancellation, R> search,
+                                            final Function<R, T> toResult) {
+        final QueryCancellation cancellation = new QueryCancellation();
+        final DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+
+        // По истечении срока или при обрыве соединения клиентом отменяем JDBC-запрос
+        result.onTimeout(() -> {
+            cancellation.cancel();
+            result.setErrorResult(new QueryTimeoutException("Task search exceeded " + timeoutMillis + " ms"));
+        });
+        result.onError(error -> cancellation.cancel());
+
+        CompletableFuture
+                .supplyAsync(() -> search.apply(cancellation), executor)
+                .whenComplete((found, error) -> {
+                    if (error == null) {
+                        result.setResult(toResult.apply(found));
+                    } else {
+                        result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                });
+
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package hexlet.code.component;
+
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@AllArgsConstructor
+@Transactional(readOnly = true)
+public class EntityVersions {
+
+    private final EntityManager entityManager;
+
+    // Только @Version по первичному ключу, без загрузки сущности и её связей
+    public Optional<Long> find(final Class<?> entity, final Long id) {
+        return entityManager.createQuery("select e.version from " + entity.getSimpleName() + " e where e.id = :id",
+                        Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -4,6 +4,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Clock;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.impl.DefaultClock;
+import io.micrometer.core.annotation.Timed;
 import java.util.Date;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,6 +33,7 @@ public class JWTHelper {
         this.clock = DefaultClock.INSTANCE;
     }
 
+    @Timed(value = "jwt.expiring", histogram = true)
     public String expiring(final Map<String, Object> attributes) {
         return Jwts.builder()
                 .signWith(HS256, secretKey)
@@ -39,6 +41,7 @@ public class JWTHelper {
                 .compact();
     }
 
+    @Timed(value = "jwt.verify", histogram = true)
     public Map<String, Object> verify(final String token) {
         return Jwts.parser()
                 .requireIssuer(issuer)
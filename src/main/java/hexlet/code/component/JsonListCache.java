@@ -0,0 +1,72 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.config.ReadWriteRoutingDataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+@Component
+public class JsonListCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public JsonListCache(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot get(final String key, final Supplier<List<?>> loader) {
+        // Поколение читаем до загрузки: если список инвалидируют во время чтения из БД,
+        // устаревший снимок не совпадёт с новым поколением и будет перечитан
+        final long generation = generation(key).get();
+        final Snapshot cached = snapshots.get(key);
+        if (cached != null && cached.generation() == generation) {
+            return cached;
+        }
+
+        // Снимок отдаётся всем под новым поколением, поэтому читается с основной БД, а не с реплики
+        final byte[] json = ReadWriteRoutingDataSource.onPrimary(() -> toJson(loader.get()));
+        final Snapshot snapshot = new Snapshot(generation, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        snapshots.merge(key, snapshot, (old, fresh) -> fresh.generation() >= old.generation() ? fresh : old);
+        return snapshot;
+    }
+
+    public void invalidate(final String key) {
+        // Внутри транзакции - после коммита: иначе параллельное чтение успеет закэшировать
+        // ещё не изменённый список под новым поколением
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation(key).incrementAndGet();
+                }
+            });
+            return;
+        }
+        generation(key).incrementAndGet();
+    }
+
+    private AtomicLong generation(final String key) {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private byte[] toJson(final List<?> list) {
+        try {
+            return objectMapper.writeValueAsBytes(list);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Snapshot(long generation, byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,56 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.InvalidRequestException;
+import hexlet.code.dto.MergePatch;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static java.util.Spliterator.ORDERED;
+
+@Component
+@AllArgsConstructor
+public class MergePatchReader {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    // Ограничения DTO проверяются только для переданных полей: остальные останутся как в БД
+    public <T> MergePatch<T> read(final JsonNode patch, final Class<T> dtoType) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRequestException("Merge patch must be a JSON object");
+        }
+
+        final T values;
+        try {
+            values = objectMapper.readerFor(dtoType)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .treeToValue(patch, dtoType);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException(e.getOriginalMessage(), e);
+        }
+
+        final Set<String> fields = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(patch.fieldNames(), ORDERED), false)
+                .collect(Collectors.toUnmodifiableSet());
+
+        final Set<ConstraintViolation<T>> violations = new HashSet<>();
+        fields.forEach(field -> violations.addAll(validator.validateProperty(values, field)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        return new MergePatch<>(values, fields);
+    }
+}
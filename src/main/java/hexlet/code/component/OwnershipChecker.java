@@ -0,0 +1,61 @@
+package hexlet.code.component;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import static hexlet.code.model.QTask.task;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+@Component
+@AllArgsConstructor
+@Transactional(readOnly = true)
+public class OwnershipChecker {
+
+    private static final String TASK_AUTHORS = OwnershipChecker.class.getName() + ".TASK_AUTHORS";
+
+    private final EntityManager entityManager;
+
+    public boolean isSameUser(final Long userId, final String userName) {
+        return userId.toString().equals(userName);
+    }
+
+    public boolean isTaskAuthor(final Long taskId, final String userName) {
+        return taskAuthors()
+                .computeIfAbsent(taskId, this::findTaskAuthorId)
+                .toString()
+                .equals(userName);
+    }
+
+    private Long findTaskAuthorId(final Long taskId) {
+        // Только author_id по первичному ключу, без загрузки задачи и автора
+        return Optional.ofNullable(new JPAQuery<Long>(entityManager)
+                        .select(task.author.id)
+                        .from(task)
+                        .where(task.id.eq(taskId))
+                        .fetchOne())
+                .orElseThrow(() -> new NoSuchElementException("Not found task with 'id': " + taskId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> taskAuthors() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new HashMap<>();
+        }
+        var authors = (Map<Long, Long>) attributes.getAttribute(TASK_AUTHORS, SCOPE_REQUEST);
+        if (authors == null) {
+            authors = new HashMap<>();
+            attributes.setAttribute(TASK_AUTHORS, authors, SCOPE_REQUEST);
+        }
+        return authors;
+    }
+}
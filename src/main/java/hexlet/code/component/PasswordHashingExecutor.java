@@ -0,0 +1,92 @@
+package hexlet.code.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer latency;
+    private final LongAdder rejected = new LongAdder();
+    private final long timeoutMillis;
+    private final long retryAfterSec;
+
+    public PasswordHashingExecutor(@Value("${password-hashing.threads:0}") final int threads,
+                                   @Value("${password-hashing.queue-capacity:64}") final int queueCapacity,
+                                   @Value("${password-hashing.timeout-ms:5000}") final long timeoutMillis,
+                                   @Value("${password-hashing.retry-after-sec:1}") final long retryAfterSec,
+                                   final MeterRegistry meterRegistry) {
+        // BCrypt упирается в CPU, поэтому потоков не больше, чем ядер
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSec = retryAfterSec;
+
+        this.latency = Timer.builder("password.hashing.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("password.hashing.rejected", rejected, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(final Supplier<T> operation) {
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> latency.record(operation));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSec);
+        }
+
+        try {
+            return future.get(timeoutMillis, MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSec);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException(retryAfterSec);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
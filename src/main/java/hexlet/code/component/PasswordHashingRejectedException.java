@@ -0,0 +1,14 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSec;
+
+    public PasswordHashingRejectedException(final long retryAfterSec) {
+        super("Too many password hashing requests, try again later");
+        this.retryAfterSec = retryAfterSec;
+    }
+}
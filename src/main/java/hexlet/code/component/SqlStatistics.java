@@ -0,0 +1,55 @@
+package hexlet.code.component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счётчики SQL одного HTTP-запроса. Привязываются к потоку, но могут переезжать
+// в пул поиска вместе с задачей (см. wrap), поэтому счётчики потокобезопасные
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    public long statementCount() {
+        return statements.sum();
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+    }
+
+    void record(final long elapsedNanos) {
+        statements.increment();
+        nanos.add(elapsedNanos);
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(final SqlStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public static Runnable wrap(final Runnable task) {
+        final SqlStatistics statistics = current();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            final SqlStatistics previous = current();
+            bind(statistics);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+}
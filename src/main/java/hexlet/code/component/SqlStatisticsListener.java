@@ -0,0 +1,37 @@
+package hexlet.code.component;
+
+import org.hibernate.engine.spi.BaseSessionEventListener;
+
+// Создаётся Hibernate на каждую сессию (hibernate.session.events.auto), сессия однопоточная
+public class SqlStatisticsListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(final long start) {
+        final SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.record(System.nanoTime() - start);
+        }
+    }
+}
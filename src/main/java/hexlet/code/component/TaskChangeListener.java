@@ -0,0 +1,269 @@
+package hexlet.code.component;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import hexlet.code.model.Task;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.DeleteEvent;
+import org.hibernate.event.spi.DeleteEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PreCollectionRecreateEvent;
+import org.hibernate.event.spi.PreCollectionRecreateEventListener;
+import org.hibernate.event.spi.PreCollectionRemoveEvent;
+import org.hibernate.event.spi.PreCollectionRemoveEventListener;
+import org.hibernate.event.spi.PreCollectionUpdateEvent;
+import org.hibernate.event.spi.PreCollectionUpdateEventListener;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static hexlet.code.model.QTask.task;
+
+// Держит производные от задач in-memory структуры в согласии с БД.
+// События приходят только после коммита, так что откаченные изменения в индекс не попадают.
+// Изменения в обход сессии (bulk update/delete) должны обновлять индекс сами
+@Component
+public class TaskChangeListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener, DeleteEventListener,
+        PreCollectionRecreateEventListener, PreCollectionUpdateEventListener, PreCollectionRemoveEventListener {
+
+    private static final String TASK_STATUS = "taskStatus";
+    private static final String EXECUTOR = "executor";
+    private static final String LABELS_ROLE = Task.class.getName() + ".labels";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TaskSearchIndex searchIndex;
+    private final TaskStatistics statistics;
+    private final int fetchSize;
+
+    public TaskChangeListener(final EntityManagerFactory entityManagerFactory,
+                              final TaskSearchIndex searchIndex,
+                              final TaskStatistics statistics,
+                              @Value("${tasks.search.rebuild-fetch-size:1000}") final int fetchSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.searchIndex = searchIndex;
+        this.statistics = statistics;
+        this.fetchSize = fetchSize;
+    }
+
+    @PostConstruct
+    public void register() {
+        final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.prependListeners(EventType.DELETE, this);
+        registry.appendListeners(EventType.PRE_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.PRE_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.PRE_COLLECTION_REMOVE, this);
+    }
+
+    // Слушатели уже зарегистрированы, поэтому задачи, сохранённые во время загрузки, не потеряются:
+    // индекс копит их и применяет к новой копии перед подменой
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try (Stream<Tuple> rows = new JPAQuery<Tuple>(entityManager)
+                .select(task.id, task.name, task.description)
+                .from(task)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .createQuery()
+                .getResultStream()) {
+            searchIndex.rebuild(rows.map(row -> new TaskSearchIndex.Document(
+                    row.get(task.id),
+                    row.get(task.name),
+                    row.get(task.description)
+            )));
+        } finally {
+            entityManager.close();
+        }
+        statistics.rebuild();
+    }
+
+    // Bulk-запросы не порождают событий Hibernate, поэтому сервис сообщает о затронутых задачах сам
+    public void afterBulkUpdate(final TaskStatistics.Snapshot before, final TaskStatistics.Snapshot after) {
+        afterCommit(() -> statistics.changed(before, after));
+    }
+
+    public void afterBulkDelete(final List<Long> taskIds, final TaskStatistics.Snapshot before) {
+        afterCommit(() -> {
+            taskIds.forEach(searchIndex::remove);
+            statistics.changed(before, TaskStatistics.EMPTY);
+        });
+    }
+
+    private static void afterCommit(final Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if (event.getEntity() instanceof Task inserted) {
+            searchIndex.index(inserted.getId(), inserted.getName(), inserted.getDescription());
+            final EntityPersister persister = event.getPersister();
+            final Object[] state = event.getState();
+            statistics.inserted(id(persister, state, TASK_STATUS), id(persister, state, EXECUTOR));
+        }
+    }
+
+    // Разница берётся из состояния до изменения, без него (update отсоединённой сущности) - пересчёт
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if (event.getEntity() instanceof Task updated) {
+            searchIndex.index(updated.getId(), updated.getName(), updated.getDescription());
+            final EntityPersister persister = event.getPersister();
+            final Object[] oldState = event.getOldState();
+            if (oldState == null) {
+                statistics.markStale();
+            } else {
+                statistics.updated(
+                        id(persister, oldState, TASK_STATUS),
+                        id(persister, oldState, EXECUTOR),
+                        id(persister, event.getState(), TASK_STATUS),
+                        id(persister, event.getState(), EXECUTOR)
+                );
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if (event.getEntity() instanceof Task) {
+            searchIndex.remove((Long) event.getId());
+            final EntityPersister persister = event.getPersister();
+            final Object[] state = event.getDeletedState();
+            statistics.deleted(id(persister, state, TASK_STATUS), id(persister, state, EXECUTOR));
+        }
+    }
+
+    // Метки удаляемой задачи загружаются до flush, чтобы событие удаления коллекции знало, что вычитать
+    @Override
+    public void onDelete(final DeleteEvent event) {
+        if (event.getObject() instanceof Task deleted) {
+            Hibernate.initialize(deleted.getLabels());
+        }
+    }
+
+    @Override
+    public void onDelete(final DeleteEvent event, final Set transientEntities) {
+        onDelete(event);
+    }
+
+    // Смена одних меток не порождает события обновления задачи без @Version, поэтому метки
+    // считаются по событиям коллекции. Они приходят при flush, а применяются после коммита
+    @Override
+    public void onPreRecreateCollection(final PreCollectionRecreateEvent event) {
+        if (isTaskLabels(event)) {
+            final Set<Long> added = labelIds((Collection<?>) event.getCollection());
+            afterTransaction(event, () -> statistics.labelsChanged(Set.of(), added));
+        }
+    }
+
+    @Override
+    public void onPreUpdateCollection(final PreCollectionUpdateEvent event) {
+        if (isTaskLabels(event)) {
+            final Set<Long> before = storedLabelIds(event.getCollection());
+            final Set<Long> after = labelIds((Collection<?>) event.getCollection());
+            afterTransaction(event, () -> statistics.labelsChanged(minus(before, after), minus(after, before)));
+        }
+    }
+
+    // Незагруженную коллекцию заменили целиком: старые метки неизвестны, счётчики пересчитаются из БД
+    @Override
+    public void onPreRemoveCollection(final PreCollectionRemoveEvent event) {
+        if (isTaskLabels(event)) {
+            if (event.getCollection().wasInitialized()) {
+                final Set<Long> removed = storedLabelIds(event.getCollection());
+                afterTransaction(event, () -> statistics.labelsChanged(removed, Set.of()));
+            } else {
+                afterTransaction(event, statistics::markStale);
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(final PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(final PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(final PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return Task.class.equals(persister.getMappedClass());
+    }
+
+    private static boolean isTaskLabels(final AbstractCollectionEvent event) {
+        return event.getAffectedOwnerOrNull() instanceof Task && LABELS_ROLE.equals(event.getCollection().getRole());
+    }
+
+    private static void afterTransaction(final AbstractCollectionEvent event, final Runnable action) {
+        event.getSession().getActionQueue().registerProcess((success, session) -> {
+            if (success) {
+                action.run();
+            }
+        });
+    }
+
+    private Long id(final EntityPersister persister, final Object[] state, final String property) {
+        final Object reference = state[persister.getEntityMetamodel().getPropertyIndex(property)];
+        return reference == null ? null : (Long) entityManagerFactory.getPersistenceUnitUtil().getIdentifier(reference);
+    }
+
+    // Снимок PersistentSet - карта элементов в том виде, в каком они загружены из БД
+    private Set<Long> storedLabelIds(final PersistentCollection collection) {
+        final Serializable snapshot = collection.getStoredSnapshot();
+        return snapshot instanceof Map<?, ?> stored ? labelIds(stored.keySet()) : Set.of();
+    }
+
+    private Set<Long> labelIds(final Collection<?> labels) {
+        return labels.stream()
+                .map(label -> (Long) entityManagerFactory.getPersistenceUnitUtil().getIdentifier(label))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Set<Long> minus(final Set<Long> from, final Set<Long> removed) {
+        final Set<Long> result = new HashSet<>(from);
+        result.removeAll(removed);
+        return result;
+    }
+}
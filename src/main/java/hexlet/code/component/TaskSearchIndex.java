@@ -0,0 +1,196 @@
+package hexlet.code.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+// Обратный индекс по словам из name и description задач.
+// Термы лежат в отсортированной карте, поэтому поиск по префиксу - это просмотр поддиапазона.
+// Изменения индекса сериализованы, чтение идёт без блокировок
+@Component
+public class TaskSearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BOOST = 2;
+
+    private volatile Segment segment = new Segment();
+    // Изменения, пришедшие во время перестроения: применяются к новому индексу перед подменой
+    private List<Consumer<Segment>> pending;
+
+    public synchronized void index(final Long id, final String name, final String description) {
+        apply(current -> current.index(id, name, description));
+    }
+
+    public synchronized void remove(final Long id) {
+        apply(current -> current.remove(id));
+    }
+
+    // Новый индекс строится без блокировки, читатели до подмены видят старый целиком
+    public void rebuild(final Stream<Document> documents) {
+        synchronized (this) {
+            if (pending != null) {
+                throw new IllegalStateException("Search index rebuild is already running");
+            }
+            pending = new ArrayList<>();
+        }
+        try {
+            final Segment fresh = new Segment();
+            documents.forEach(document -> fresh.index(document.id(), document.name(), document.description()));
+            synchronized (this) {
+                pending.forEach(change -> change.accept(fresh));
+                segment = fresh;
+            }
+        } finally {
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    public int size() {
+        return segment.documents.size();
+    }
+
+    // Id задач, содержащих все слова запроса (каждое как префикс), по убыванию релевантности.
+    // Слова идут от самого редкого: для частых слов проверяются только уже найденные кандидаты
+    public List<Long> search(final String query) {
+        final Segment current = segment;
+        final List<Match> matches = tokenize(query)
+                .distinct()
+                .map(token -> Match.of(token, current.postings.subMap(token, true, token + Character.MAX_VALUE, true)))
+                .sorted(Comparator.comparingLong(Match::postingCount))
+                .toList();
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = matches.get(0).scoreAll();
+        for (int i = 1; i < matches.size() && !scores.isEmpty(); i++) {
+            scores = matches.get(i).rescore(scores);
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public static Stream<String> tokenize(final String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty());
+    }
+
+    private void apply(final Consumer<Segment> change) {
+        change.accept(segment);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    public record Document(Long id, String name, String description) {
+    }
+
+    private static final class Segment {
+
+        // терм -> (id задачи -> вес терма в задаче)
+        private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        // id задачи -> её термы, чтобы при изменении и удалении не перебирать весь индекс
+        private final Map<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+        void index(final Long id, final String name, final String description) {
+            remove(id);
+
+            final Map<String, Integer> weights = new HashMap<>();
+            tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+            weights.forEach((term, weight) -> postings
+                    .computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                    .put(id, weight));
+            documents.put(id, new HashSet<>(weights.keySet()));
+        }
+
+        void remove(final Long id) {
+            final Set<String> terms = documents.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (final String term : terms) {
+                final Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    // Термы с префиксом одного слова запроса
+    private record Match(String token, SortedMap<String, Map<Long, Integer>> terms, long postingCount) {
+
+        static Match of(final String token, final SortedMap<String, Map<Long, Integer>> terms) {
+            return new Match(token, terms, terms.values().stream().mapToLong(Map::size).sum());
+        }
+
+        Map<Long, Integer> scoreAll() {
+            final Map<Long, Integer> scores = new HashMap<>();
+            terms.forEach((term, docs) -> docs.forEach((id, weight) ->
+                    scores.merge(id, weight * boost(term), Integer::sum)));
+            return scores;
+        }
+
+        // Пересечение с кандидатами: поштучная проверка, если она дешевле слияния списков целиком
+        Map<Long, Integer> rescore(final Map<Long, Integer> candidates) {
+            final Map<Long, Integer> scores = new HashMap<>();
+            if ((long) candidates.size() * terms.size() < postingCount) {
+                candidates.forEach((id, score) -> {
+                    int added = 0;
+                    for (final Map.Entry<String, Map<Long, Integer>> term : terms.entrySet()) {
+                        final Integer weight = term.getValue().get(id);
+                        if (weight != null) {
+                            added += weight * boost(term.getKey());
+                        }
+                    }
+                    if (added > 0) {
+                        scores.put(id, score + added);
+                    }
+                });
+            } else {
+                scoreAll().forEach((id, added) -> {
+                    final Integer score = candidates.get(id);
+                    if (score != null) {
+                        scores.put(id, score + added);
+                    }
+                });
+            }
+            return scores;
+        }
+
+        private int boost(final String term) {
+            return term.length() == token.length() ? EXACT_MATCH_BOOST : 1;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package hexlet.code.component;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import static hexlet.code.model.QLabel.label;
+import static hexlet.code.model.QTask.task;
+
+// Счётчики задач по статусу, исполнителю и метке. Меняются разницей на каждое изменение задачи
+// (через TaskChangeListener), поэтому чтение не зависит от числа задач, а состояние отдельных задач не хранится.
+// Полный пересчёт - три GROUP BY вне блокировки
+@Slf4j
+@Component
+public class TaskStatistics {
+
+    public static final Snapshot EMPTY = new Snapshot(0, 0, Map.of(), Map.of(), Map.of());
+
+    private static final int COUNT_CHUNK_SIZE = 1000;
+    private static final int RECOUNT_ATTEMPTS = 3;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Counters counters = new Counters();
+    // Число применённых изменений: пересчёт принимается, только если за время запросов оно не изменилось,
+    // иначе неизвестно, учтены ли эти изменения в результате
+    private long changes;
+    // Разницу какого-то изменения узнать не удалось, счётчики нужно пересчитать
+    private boolean stale = true;
+
+    public TaskStatistics(final EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return counters.snapshot();
+    }
+
+    public synchronized void inserted(final Long statusId, final Long executorId) {
+        counters.count(statusId, executorId, 1);
+        changes++;
+    }
+
+    public synchronized void updated(final Long oldStatusId,
+                                     final Long oldExecutorId,
+                                     final Long statusId,
+                                     final Long executorId) {
+        counters.count(oldStatusId, oldExecutorId, -1);
+        counters.count(statusId, executorId, 1);
+        changes++;
+    }
+
+    public synchronized void deleted(final Long statusId, final Long executorId) {
+        counters.count(statusId, executorId, -1);
+        changes++;
+    }
+
+    public synchronized void labelsChanged(final Collection<Long> removed, final Collection<Long> added) {
+        counters.countLabels(removed, -1);
+        counters.countLabels(added, 1);
+        changes++;
+    }
+
+    // Для изменений в обход сессии: разница подсчётов по затронутым задачам до и после изменения
+    public synchronized void changed(final Snapshot before, final Snapshot after) {
+        counters.add(before, -1);
+        counters.add(after, 1);
+        changes++;
+    }
+
+    public synchronized void markStale() {
+        stale = true;
+        changes++;
+    }
+
+    // Подсчёт по указанным задачам в переданной сессии, в том числе с незакоммиченными изменениями
+    public Snapshot count(final EntityManager entityManager, final List<Long> taskIds) {
+        final Counters sum = new Counters();
+        for (int from = 0; from < taskIds.size(); from += COUNT_CHUNK_SIZE) {
+            final List<Long> chunk = taskIds.subList(from, Math.min(from + COUNT_CHUNK_SIZE, taskIds.size()));
+            sum.add(count(entityManager, task.id.in(chunk)), 1);
+        }
+        return sum.snapshot();
+    }
+
+    public void rebuild() {
+        for (int attempt = 0; attempt < RECOUNT_ATTEMPTS; attempt++) {
+            if (recount()) {
+                return;
+            }
+        }
+        // Задачи меняются непрерывно: ближайший пересчёт по stale-recount-ms повторит попытку
+        markStale();
+    }
+
+    // Страховка от изменений в обход Hibernate: сверка с GROUP BY, при расхождении счётчики заменяются
+    @Scheduled(fixedDelayString = "${tasks.stats.reconcile-ms:600000}",
+            initialDelayString = "${tasks.stats.reconcile-ms:600000}")
+    public void reconcile() {
+        recount();
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.stats.stale-recount-ms:1000}")
+    public void recountIfStale() {
+        if (isStale()) {
+            recount();
+        }
+    }
+
+    private synchronized boolean isStale() {
+        return stale;
+    }
+
+    private boolean recount() {
+        final long seen;
+        synchronized (this) {
+            seen = changes;
+        }
+
+        final Snapshot actual;
+        final EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            actual = count(entityManager, (Predicate) null);
+        } finally {
+            entityManager.close();
+        }
+
+        synchronized (this) {
+            if (changes != seen) {
+                return false;
+            }
+            final Snapshot kept = counters.snapshot();
+            if (!actual.equals(kept)) {
+                if (!stale) {
+                    log.warn("Task statistics drifted from database (kept {} tasks, found {}), recounted",
+                            kept.total(), actual.total());
+                }
+                counters = new Counters();
+                counters.add(actual, 1);
+            }
+            stale = false;
+            return true;
+        }
+    }
+
+    private Snapshot count(final EntityManager entityManager, final Predicate where) {
+        final Map<Long, Long> statuses = groupCount(new JPAQuery<Tuple>(entityManager)
+                .select(task.taskStatus.id, task.count())
+                .from(task)
+                .where(where)
+                .groupBy(task.taskStatus.id));
+        final Map<Long, Long> executors = groupCount(new JPAQuery<Tuple>(entityManager)
+                .select(task.executor.id, task.count())
+                .from(task)
+                .where(where)
+                .groupBy(task.executor.id));
+        final Map<Long, Long> labels = groupCount(new JPAQuery<Tuple>(entityManager)
+                .select(label.id, task.count())
+                .from(task)
+                .join(task.labels, label)
+                .where(where)
+                .groupBy(label.id));
+
+        final long total = statuses.values().stream().mapToLong(Long::longValue).sum();
+        final long withoutExecutor = executors.getOrDefault(null, 0L);
+        executors.remove(null);
+        statuses.remove(null);
+        return new Snapshot(total, withoutExecutor, Map.copyOf(statuses), Map.copyOf(executors),
+                Map.copyOf(labels));
+    }
+
+    private static Map<Long, Long> groupCount(final JPAQuery<Tuple> query) {
+        final Map<Long, Long> counts = new HashMap<>();
+        query.fetch().forEach(row -> counts.put(row.get(0, Long.class), row.get(1, Long.class)));
+        return counts;
+    }
+
+    public record Snapshot(long total,
+                           long unassigned,
+                           Map<Long, Long> byStatus,
+                           Map<Long, Long> byExecutor,
+                           Map<Long, Long> byLabel) {
+    }
+
+    private static final class Counters {
+
+        private final Map<Long, Long> byStatus = new HashMap<>();
+        private final Map<Long, Long> byExecutor = new HashMap<>();
+        private final Map<Long, Long> byLabel = new HashMap<>();
+        private long total;
+        private long unassigned;
+
+        void count(final Long statusId, final Long executorId, final long delta) {
+            total += delta;
+            increment(byStatus, statusId, delta);
+            if (executorId == null) {
+                unassigned += delta;
+            } else {
+                increment(byExecutor, executorId, delta);
+            }
+        }
+
+        void countLabels(final Collection<Long> labelIds, final long delta) {
+            labelIds.forEach(labelId -> increment(byLabel, labelId, delta));
+        }
+
+        void add(final Snapshot snapshot, final long sign) {
+            total += sign * snapshot.total();
+            unassigned += sign * snapshot.unassigned();
+            snapshot.byStatus().forEach((id, count) -> increment(byStatus, id, sign * count));
+            snapshot.byExecutor().forEach((id, count) -> increment(byExecutor, id, sign * count));
+            snapshot.byLabel().forEach((id, count) -> increment(byLabel, id, sign * count));
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(total, unassigned, Map.copyOf(byStatus), Map.copyOf(byExecutor),
+                    Map.copyOf(byLabel));
+        }
+
+        private static void increment(final Map<Long, Long> counters, final Long key, final long delta) {
+            if (key != null) {
+                counters.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hexlet.code.component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: всё состояние - одно "теоретическое время прихода" следующего запроса,
+// поэтому захват токена - один CAS без блокировок
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(final double ratePerSecond, final int burst, final long nowNanos) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // 0 - токен получен, иначе через сколько наносекунд он появится
+    public long tryAcquire(final long nowNanos) {
+        while (true) {
+            final long arrival = theoreticalArrival.get();
+            final long next = Math.max(arrival, nowNanos) + intervalNanos;
+            final long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Через это время простоя ведро снова полное, и его можно забыть без потери состояния
+    public long refillNanos() {
+        return burstNanos;
+    }
+}
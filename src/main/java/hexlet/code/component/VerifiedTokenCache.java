@@ -0,0 +1,127 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static io.jsonwebtoken.Claims.EXPIRATION;
+
+@Component
+public class VerifiedTokenCache {
+
+    private final JWTHelper jwtHelper;
+    private final long clockSkewMillis;
+    private final Cache<String, VerifiedToken> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(final JWTHelper jwtHelper,
+                              @Value("${jwt.clock-skew-sec:300}") final Long clockSkewSec,
+                              @Value("${jwt.cache.max-size:10000}") final Long maxSize,
+                              final MeterRegistry meterRegistry) {
+        this.jwtHelper = jwtHelper;
+        this.clockSkewMillis = TimeUnit.SECONDS.toMillis(clockSkewSec);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+
+        FunctionCounter.builder("jwt.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size)
+                .register(meterRegistry);
+    }
+
+    public Map<String, Object> verify(final String token) {
+        final String key = digest(token);
+        final VerifiedToken cached = cache.getIfPresent(key);
+
+        // Запись могла ещё не вытесниться, поэтому срок действия проверяем явно
+        if (cached != null && cached.isValidAt(System.currentTimeMillis())) {
+            hits.increment();
+            return cached.claims();
+        }
+
+        misses.increment();
+        final Map<String, Object> claims = Map.copyOf(jwtHelper.verify(token));
+        cache.put(key, new VerifiedToken(claims, expiresAt(claims)));
+        return claims;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Long expiresAt(final Map<String, Object> claims) {
+        final Object exp = claims.get(EXPIRATION);
+        if (exp instanceof Number seconds) {
+            return TimeUnit.SECONDS.toMillis(seconds.longValue()) + clockSkewMillis;
+        }
+        return null;
+    }
+
+    private static String digest(final String token) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(Map<String, Object> claims, Long expiresAt) {
+
+        boolean isValidAt(final long now) {
+            return expiresAt == null || now <= expiresAt;
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(final String key, final VerifiedToken value, final long currentTime) {
+            if (value.expiresAt() == null) {
+                return Long.MAX_VALUE;
+            }
+            final long ttl = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(ttl, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final VerifiedToken value,
+                                      final long currentTime, final long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final VerifiedToken value,
+                                    final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package hexlet.code.component;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+public final class VersionETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private VersionETags() {
+    }
+
+    public static String of(final Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match по RFC 9110: null - условия нет (заголовка нет или "*"), иначе версии, с которыми запрос
+    // выполняется. Сравнение строгое, поэтому слабые W/"..." и чужие ETag не совпадают ни с чем:
+    // пустой набор означает 412, а не 400
+    public static Set<Long> parseIfMatch(final String header) {
+        if (header == null || header.isBlank() || "*".equals(header.trim())) {
+            return null;
+        }
+        final Set<Long> versions = new HashSet<>();
+        int position = 0;
+        while (position < header.length()) {
+            final char current = header.charAt(position);
+            if (current == ',' || Character.isWhitespace(current)) {
+                position++;
+                continue;
+            }
+            final boolean weak = header.startsWith(WEAK_PREFIX, position);
+            final int open = weak ? position + WEAK_PREFIX.length() : position;
+            if (open >= header.length() || header.charAt(open) != '"') {
+                // Не entity-tag: пропускаем до следующего элемента списка
+                final int comma = header.indexOf(',', position);
+                position = comma < 0 ? header.length() : comma + 1;
+                continue;
+            }
+            final int close = header.indexOf('"', open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (!weak) {
+                parseVersion(header.substring(open + 1, close)).ifPresent(versions::add);
+            }
+            position = close + 1;
+        }
+        return versions;
+    }
+
+    // expectedVersions - результат parseIfMatch; несовпадение отдаётся как 412
+    public static void checkIfMatch(final Set<Long> expectedVersions, final Long version, final String entity) {
+        if (expectedVersions != null && !expectedVersions.contains(version)) {
+            throw new OptimisticLockingFailureException(entity + " has been modified");
+        }
+    }
+
+    private static Optional<Long> parseVersion(final String value) {
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package hexlet.code.config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.Filter;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+// Профиль fast-start: бины создаются лениво (spring.main.lazy-initialization в application-fast-start.yml),
+// кроме пути первого запроса и бинов, которые должны работать с момента старта.
+// Liquibase пропускается, если changelog не менялся, и проверяется в фоне после готовности приложения
+@Configuration
+@Profile(FastStartConfiguration.FAST_START_PROFILE)
+public class FastStartConfiguration {
+
+    public static final String FAST_START_PROFILE = "fast-start";
+
+    private static final List<Class<?>> EAGER_TYPES = List.of(
+            DataSource.class,
+            SpringLiquibase.class,
+            EntityManagerFactory.class,
+            AbstractEntityManagerFactoryBean.class,
+            Filter.class
+    );
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return (beanName, definition, beanType) ->
+                EAGER_TYPES.stream().anyMatch(type -> type.isAssignableFrom(beanType)) || hasStartupWork(beanType);
+    }
+
+    // Расписание и регистрация слушателей Hibernate срабатывают только при создании бина
+    private static boolean hasStartupWork(final Class<?> beanType) {
+        final var found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true), method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, PostConstruct.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, EventListener.class));
+        return found.get();
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(LiquibaseProperties.class)
+    @ConditionalOnProperty(name = "fast-start.liquibase.skip-unchanged", havingValue = "true", matchIfMissing = true)
+    public static class FingerprintedLiquibaseConfiguration {
+
+        // Повторяет настройку из LiquibaseAutoConfiguration, которая отключается при наличии своего SpringLiquibase
+        @Bean
+        public FingerprintedLiquibase liquibase(
+                final LiquibaseProperties properties,
+                final ObjectProvider<DataSource> dataSource,
+                @LiquibaseDataSource final ObjectProvider<DataSource> liquibaseDataSource) {
+            final var liquibase = new FingerprintedLiquibase();
+            liquibase.setDataSource(liquibaseDataSource.getIfAvailable(dataSource::getObject));
+            liquibase.setChangeLog(properties.getChangeLog());
+            liquibase.setClearCheckSums(properties.isClearChecksums());
+            liquibase.setContexts(properties.getContexts());
+            liquibase.setDefaultSchema(properties.getDefaultSchema());
+            liquibase.setLiquibaseSchema(properties.getLiquibaseSchema());
+            liquibase.setLiquibaseTablespace(properties.getLiquibaseTablespace());
+            liquibase.setDatabaseChangeLogTable(properties.getDatabaseChangeLogTable());
+            liquibase.setDatabaseChangeLogLockTable(properties.getDatabaseChangeLogLockTable());
+            liquibase.setDropFirst(properties.isDropFirst());
+            liquibase.setShouldRun(properties.isEnabled());
+            liquibase.setLabels(properties.getLabels());
+            liquibase.setChangeLogParameters(properties.getParameters());
+            liquibase.setRollbackFile(properties.getRollbackFile());
+            liquibase.setTestRollbackOnUpdate(properties.isTestRollbackOnUpdate());
+            liquibase.setTag(properties.getTag());
+            return liquibase;
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void validateDeferred(final ApplicationReadyEvent event) {
+            final var liquibase = event.getApplicationContext().getBean(FingerprintedLiquibase.class);
+            if (liquibase.isSkipped()) {
+                Thread.ofVirtual().name("liquibase-validation").start(liquibase::validateDeferred);
+            }
+        }
+    }
+}
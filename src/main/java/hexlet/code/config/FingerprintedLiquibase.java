@@ -0,0 +1,100 @@
+package hexlet.code.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Если changelog не менялся с последнего успешного update, пропускает его при старте: без блокировки
+// DATABASECHANGELOGLOCK, чтения DATABASECHANGELOG и подсчёта контрольных сумм. Полная проверка
+// выполняется потом, в фоне, через validateDeferred()
+@Slf4j
+public class FingerprintedLiquibase extends SpringLiquibase {
+
+    private static final String CHANGELOG_FILES = "classpath*:db/changelog/**/*.*";
+    private static final String SELECT_FINGERPRINT = "select fingerprint from liquibase_fingerprint";
+
+    private boolean skipped;
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        final String fingerprint = fingerprint();
+        if (isShouldRun() && !isDropFirst() && fingerprint.equals(storedFingerprint())) {
+            log.info("Changelog fingerprint {} is unchanged, Liquibase update deferred", fingerprint);
+            skipped = true;
+            return;
+        }
+        super.afterPropertiesSet();
+        if (isShouldRun()) {
+            storeFingerprint(fingerprint);
+        }
+    }
+
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    // При расхождении отпечаток сбрасывается, и следующий старт выполнит обычный update
+    public void validateDeferred() {
+        try (Connection connection = getDataSource().getConnection()) {
+            createLiquibase(connection).validate();
+            log.info("Deferred Liquibase validation passed");
+        } catch (LiquibaseException | SQLException e) {
+            log.error("Deferred Liquibase validation failed, next start will run a full update", e);
+            storeFingerprint(null);
+        }
+    }
+
+    private String fingerprint() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(getChangeLog().getBytes(StandardCharsets.UTF_8));
+            final List<Resource> files = Arrays.stream(new PathMatchingResourcePatternResolver(getResourceLoader())
+                            .getResources(CHANGELOG_FILES))
+                    .sorted(Comparator.comparing(Resource::getDescription))
+                    .toList();
+            for (final Resource file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Can't fingerprint changelog " + getChangeLog(), e);
+        }
+    }
+
+    private String storedFingerprint() {
+        try {
+            return new JdbcTemplate(getDataSource()).queryForList(SELECT_FINGERPRINT, String.class)
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            // Таблицы ещё нет: первая миграция
+            return null;
+        }
+    }
+
+    private void storeFingerprint(final String fingerprint) {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(getDataSource());
+        jdbcTemplate.update("delete from liquibase_fingerprint");
+        if (fingerprint != null) {
+            jdbcTemplate.update("insert into liquibase_fingerprint (fingerprint) values (?)", fingerprint);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hexlet.code.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+
+@Configuration
+public class MetricsConfiguration {
+
+    private static final Tag NO_HANDLER = Tag.of("handler", "none");
+
+    // Нужен для @Timed на обычных бинах (JWTHelper), а не только на контроллерах
+    @Bean
+    public TimedAspect timedAspect(final MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // http.server.requests с тегом handler=UserController.getUserById: uri-шаблон не различает методы одного пути
+    @Bean
+    public WebMvcTagsContributor handlerTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(final HttpServletRequest request,
+                                         final HttpServletResponse response,
+                                         final Object handler,
+                                         final Throwable exception) {
+                if (handler instanceof HandlerMethod method) {
+                    return List.of(Tag.of("handler",
+                            method.getBeanType().getSimpleName() + "." + method.getMethod().getName()));
+                }
+                return List.of(NO_HANDLER);
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(final HttpServletRequest request,
+                                                    final Object handler) {
+                return List.of();
+            }
+        };
+    }
+}
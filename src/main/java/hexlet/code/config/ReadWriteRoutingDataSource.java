@@ -0,0 +1,86 @@
+package hexlet.code.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// readOnly-транзакции идут на реплику, остальное - на основную БД.
+// Ключ выбирается при получении соединения, поэтому оборачивать нужно в LazyConnectionDataSourceProxy,
+// иначе соединение возьмут до того, как станет известен readOnly.
+// Кто недавно писал, тот некоторое время читает с основной БД, чтобы не увидеть отставание реплики
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadWriteRoutingDataSource(final DataSource primary,
+                                      final DataSource replica,
+                                      final Duration stickyWindow,
+                                      final long maxTrackedWriters) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maxTrackedWriters)
+                .build();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        final String writer = currentWriter();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (writer != null) {
+                recentWriters.put(writer, Boolean.TRUE);
+            }
+            return Route.PRIMARY;
+        }
+        if (PRIMARY_FORCED.get() != null || writer != null && recentWriters.getIfPresent(writer) != null) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    // Чтение, результат которого потом отдаётся всем, а не только текущему пользователю: снимок
+    // с отстающей реплики прожил бы до следующей записи. Соединение должно браться внутри action,
+    // то есть до первого запроса в транзакции. Писателем вызывающий при этом не становится
+    public static <T> T onPrimary(final Supplier<T> action) {
+        if (PRIMARY_FORCED.get() != null) {
+            return action.get();
+        }
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    // Пользователь из JWT; до входа (регистрация, логин) - адрес клиента
+    private static String currentWriter() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return "ip:" + servletAttributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
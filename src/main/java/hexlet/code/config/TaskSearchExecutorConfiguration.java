@@ -0,0 +1,28 @@
+package hexlet.code.config;
+
+import hexlet.code.component.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+@Configuration
+public class TaskSearchExecutorConfiguration {
+
+    public static final String TASK_SEARCH_EXECUTOR = "taskSearchExecutor";
+
+    // Отдельный пул: медленный поиск занимает его потоки и соединения, а не воркеры Tomcat
+    @Bean(name = TASK_SEARCH_EXECUTOR)
+    public ThreadPoolTaskExecutor taskSearchExecutor(@Value("${tasks.search.threads:8}") final int threads,
+                                                     @Value("${tasks.search.queue-capacity:100}") final int queue) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.setThreadNamePrefix("task-search-");
+        // Поиск выполняется от имени пользователя запроса, и его SQL учитывается в статистике запроса
+        executor.setTaskDecorator(task -> new DelegatingSecurityContextRunnable(SqlStatistics.wrap(task)));
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package hexlet.code.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    // Tomcat не закрывает переданный ему executor, поэтому его закрывает контекст:
+    // close() дожидается уже начатых задач
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadsExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Каждый запрос Tomcat выполняется в своём виртуальном потоке вместо фиксированного пула воркеров
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(
+            final ExecutorService virtualThreadsExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadsExecutor);
+    }
+
+    // Под этим именем бин подхватывают асинхронные ответы Spring MVC (Callable, StreamingResponseBody)
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(final ExecutorService virtualThreadsExecutor) {
+        return new TaskExecutorAdapter(virtualThreadsExecutor);
+    }
+}
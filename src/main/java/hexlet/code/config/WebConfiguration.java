@@ -1,46 +1,72 @@
 package hexlet.code.config;
 
 import java.io.IOException;
+import java.time.Duration;
 
+import hexlet.code.filter.SqlStatisticsFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
 
+    private static final Duration ONE_YEAR = Duration.ofDays(365);
+
     private final String baseApiPath;
 
     public WebConfiguration(@Value("/api") String baseApiPath) {
         this.baseApiPath = baseApiPath;
     }
 
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new SqlStatisticsFilter.AsyncBinding());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Сборка фронтенда кладёт под /static/** только файлы с хэшем содержимого в имени,
+        // поэтому браузер может не перепроверять их. Для .gz/.br вариантов нужен Accept-Encoding
         registry
                 .addResourceHandler("/static/**")
-                .addResourceLocations("classpath:/static/static/");
+                .addResourceLocations("classpath:/static/static/")
+                .setCacheControl(CacheControl.maxAge(ONE_YEAR).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
 
         registry
                 .addResourceHandler("/*.*")
-                .addResourceLocations("classpath:/static/");
+                .addResourceLocations("classpath:/static/")
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
 
+        // Любой путь SPA отдаёт index.html. Кэш цепочки тут не включаем: он хранил бы запись на каждый
+        // запрошенный путь, а достаточно один раз проверить, что index.html есть
         registry
                 .addResourceHandler("/", "/**")
-                .setCachePeriod(0)
+                .setCacheControl(CacheControl.noCache())
                 .addResourceLocations("classpath:/static/index.html")
-                .resourceChain(true)
+                .resourceChain(false)
                 .addResolver(new PathResourceResolver() {
+                    private volatile Boolean indexReadable;
+
                     @Override
                     protected Resource getResource(String resourcePath, Resource location) throws IOException {
                         if (resourcePath.startsWith(baseApiPath) || resourcePath.startsWith(baseApiPath.substring(1))) {
                             return null;
                         }
 
-                        return location.exists() && location.isReadable() ? location : null;
+                        if (indexReadable == null) {
+                            indexReadable = location.exists() && location.isReadable();
+                        }
+                        return indexReadable ? location : null;
                     }
                 });
     }
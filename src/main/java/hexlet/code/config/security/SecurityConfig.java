@@ -1,8 +1,11 @@
 package hexlet.code.config.security;
 
-import hexlet.code.component.JWTHelper;
+import hexlet.code.component.AdmissionControl;
+import hexlet.code.component.VerifiedTokenCache;
 import hexlet.code.filter.JWTAuthenticationFilter;
 import hexlet.code.filter.JWTAuthorizationFilter;
+import hexlet.code.filter.RateLimitFilter;
+import hexlet.code.service.RefreshTokenService;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +24,7 @@ import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
 import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
+import static hexlet.code.controller.RefreshTokenController.REFRESH;
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
@@ -38,26 +42,52 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     // - GET('/api/users')
     // - POST('/api/users')
     // - POST('/api/login')
-    // - все запросы НЕ начинающиеся на '/api'
+    // - POST и DELETE('/api/login/refresh') - refresh-токен проверяется в RefreshTokenService
+    // - все запросы НЕ начинающиеся на '/api' и '/actuator'
+    // - любые запросы на management-порт, если он отделён от основного
     private final RequestMatcher publicUrls;
     private final RequestMatcher loginRequest;
+    private final RequestMatcher perClientRequests;
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
-    private final JWTHelper jwtHelper;
+    private final RefreshTokenService refreshTokenService;
+    private final VerifiedTokenCache tokenCache;
+    private final AdmissionControl admissionControl;
 
     public SecurityConfig(@Value("${base-url}") final String baseUrl,
+                          @Value("${management.endpoints.web.base-path:/actuator}") final String actuatorPath,
+                          @Value("${management.server.port:-1}") final int managementPort,
                           final UserDetailsService userDetailsService,
-                          final PasswordEncoder passwordEncoder, final JWTHelper jwtHelper) {
+                          final PasswordEncoder passwordEncoder,
+                          final RefreshTokenService refreshTokenService,
+                          final VerifiedTokenCache tokenCache,
+                          final AdmissionControl admissionControl) {
         this.loginRequest = new AntPathRequestMatcher(baseUrl + LOGIN, POST.toString());
+        final var registrationRequest = new AntPathRequestMatcher(baseUrl + USER_CONTROLLER_PATH, POST.toString());
+        this.perClientRequests = new OrRequestMatcher(loginRequest, registrationRequest);
         this.publicUrls = new OrRequestMatcher(
                 loginRequest,
-                new AntPathRequestMatcher(baseUrl + USER_CONTROLLER_PATH, POST.toString()),
+                new AntPathRequestMatcher(baseUrl + LOGIN + REFRESH),
+                registrationRequest,
                 new AntPathRequestMatcher(baseUrl + USER_CONTROLLER_PATH, GET.toString()),
-                new NegatedRequestMatcher(new AntPathRequestMatcher(baseUrl + "/**"))
+                managementPortRequest(managementPort),
+                new NegatedRequestMatcher(new OrRequestMatcher(
+                        new AntPathRequestMatcher(baseUrl + "/**"),
+                        new AntPathRequestMatcher(actuatorPath + "/**")
+                ))
         );
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
-        this.jwtHelper = jwtHelper;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenCache = tokenCache;
+        this.admissionControl = admissionControl;
+    }
+
+    private static RequestMatcher managementPortRequest(final int managementPort) {
+        if (managementPort <= 0) {
+            return request -> false;
+        }
+        return request -> request.getLocalPort() == managementPort;
     }
 
     @Override
@@ -72,12 +102,17 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         final var authenticationFilter = new JWTAuthenticationFilter(
                 authenticationManagerBean(),
                 loginRequest,
-                jwtHelper
+                refreshTokenService
         );
 
         final var authorizationFilter = new JWTAuthorizationFilter(
                 publicUrls,
-                jwtHelper
+                tokenCache
+        );
+
+        final var rateLimitFilter = new RateLimitFilter(
+                perClientRequests,
+                admissionControl
         );
 
         http.csrf().disable()
@@ -87,6 +122,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .and()
                 .addFilter(authenticationFilter)
                 .addFilterBefore(authorizationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Тот же порядок, что у JWTAuthorizationFilter, и регистрация после него: фильтр идёт
+                // за проверкой токена, но до JWTAuthenticationFilter, который отвечает на вход сам
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement().disable()
                 .formLogin().disable()
                 .httpBasic().disable()
@@ -1,29 +1,45 @@
 package hexlet.code.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import hexlet.code.component.EntityVersions;
+import hexlet.code.component.JsonListCache;
+import hexlet.code.component.MergePatchReader;
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.LabelDto;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import java.util.List;
 import javax.validation.Valid;
 
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
 import static hexlet.code.controller.LabelController.LABEL_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @AllArgsConstructor
 @RestController
@@ -34,21 +50,46 @@ public class LabelController {
     public static final String LABEL_CONTROLLER_PATH = "/labels";
     public static final String ID = "/{id}";
 
+    private static final String ALL_LABELS = "labels";
+
     private final LabelRepository labelRepository;
+    private final JsonListCache jsonListCache;
+    private final MergePatchReader mergePatchReader;
+    private final EntityVersions entityVersions;
 
+    @ApiResponses(@ApiResponse(responseCode = "200", content =
+    @Content(array = @ArraySchema(schema = @Schema(implementation = Label.class)))
+    ))
     @GetMapping
-    public List<Label> getAllLabels() {
-        return labelRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> getAllLabels(final WebRequest request) {
+        final var labels = jsonListCache.get(ALL_LABELS, labelRepository::findAll);
+        if (request.checkNotModified(labels.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_JSON)
+                .eTag(labels.etag())
+                .body(labels.json());
     }
 
     @Operation(summary = "Get label by Id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Label found"),
+            @ApiResponse(responseCode = "304", description = "Label not modified since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Label with that id not found")
     })
     @GetMapping(ID)
-    public Label getById(@PathVariable final Long id) {
-        return labelRepository.findById(id).get();
+    @Transactional(readOnly = true)
+    public ResponseEntity<Label> getById(@PathVariable final Long id, final WebRequest request) {
+        final String currentETag = VersionETags.of(entityVersions.find(Label.class, id).get());
+        if (request.checkNotModified(currentETag)) {
+            return null;
+        }
+        final Label label = labelRepository.findById(id).get();
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(label.getVersion()))
+                .body(label);
     }
 
     @Operation(summary = "Create new Label")
@@ -56,24 +97,51 @@ public class LabelController {
     @PostMapping
     @ResponseStatus(CREATED)
     public Label createNewLabel(@RequestBody @Valid final LabelDto dto) {
-        return labelRepository.save(Label.builder()
+        final Label label = labelRepository.save(Label.builder()
                 .name(dto.getName())
                 .build()
         );
+        jsonListCache.invalidate(ALL_LABELS);
+        return label;
     }
 
     @Operation(summary = "Update Label")
     @ApiResponse(responseCode = "200", description = "Label updated")
     @PutMapping(ID)
-    public Label updateLabel(@PathVariable final Long id, @RequestBody @Valid final LabelDto dto) {
+    public ResponseEntity<Label> updateLabel(@PathVariable final Long id, @RequestBody @Valid final LabelDto dto,
+                                             @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
         final Label oldLabel = labelRepository.findById(id).get();
+        VersionETags.checkIfMatch(VersionETags.parseIfMatch(ifMatch), oldLabel.getVersion(), "Label with 'id': " + id);
         oldLabel.setName(dto.getName());
-        return labelRepository.save(oldLabel);
+        final Label label = labelRepository.save(oldLabel);
+        jsonListCache.invalidate(ALL_LABELS);
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(label.getVersion()))
+                .body(label);
+    }
+
+    @PatchMapping(path = ID, consumes = {MergePatch.MEDIA_TYPE, APPLICATION_JSON_VALUE})
+    @Transactional
+    public ResponseEntity<Label> patch(@PathVariable final long id, @RequestBody final JsonNode patch,
+                                       @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        final MergePatch<LabelDto> changes = mergePatchReader.read(patch, LabelDto.class);
+        final Label label = labelRepository.findById(id).get();
+        VersionETags.checkIfMatch(VersionETags.parseIfMatch(ifMatch), label.getVersion(), "Label with 'id': " + id);
+        if (changes.has("name")) {
+            label.setName(changes.values().getName());
+        }
+        // Изменения сохранит dirty checking; flush нужен, чтобы ETag уже содержал новую версию
+        labelRepository.flush();
+        jsonListCache.invalidate(ALL_LABELS);
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(label.getVersion()))
+                .body(label);
     }
 
     @DeleteMapping(ID)
     public void delete(@PathVariable final long id) {
         labelRepository.deleteById(id);
+        jsonListCache.invalidate(ALL_LABELS);
     }
 
 }
@@ -0,0 +1,63 @@
+package hexlet.code.controller;
+
+import hexlet.code.service.IssuedTokens;
+import hexlet.code.service.RefreshTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import static hexlet.code.config.security.SecurityConfig.LOGIN;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("${base-url}" + LOGIN)
+public class RefreshTokenController {
+
+    public static final String REFRESH = "/refresh";
+    public static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
+    private final RefreshTokenService refreshTokenService;
+
+    // Как и вход, возвращает access-токен в теле, а новый refresh-токен - в заголовке;
+    // предъявленный refresh-токен после этого недействителен
+    @Operation(summary = "Exchange refresh token for a new token pair")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "New access token, refresh token in X-Refresh-Token"),
+            @ApiResponse(responseCode = "401", description = "Refresh token unknown, expired, revoked or reused")
+    })
+    @PostMapping(REFRESH)
+    public ResponseEntity<String> refresh(
+            @RequestHeader(name = REFRESH_TOKEN_HEADER, required = false) final String refreshToken) {
+        final IssuedTokens tokens = refreshTokenService.refresh(required(refreshToken));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(REFRESH_TOKEN_HEADER, tokens.refreshToken())
+                .body(tokens.accessToken());
+    }
+
+    @Operation(summary = "Revoke refresh token and all its rotations")
+    @ApiResponse(responseCode = "204", description = "Refresh token revoked")
+    @DeleteMapping(REFRESH)
+    @ResponseStatus(NO_CONTENT)
+    public void revoke(@RequestHeader(name = REFRESH_TOKEN_HEADER, required = false) final String refreshToken) {
+        refreshTokenService.revoke(required(refreshToken));
+    }
+
+    private static String required(final String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Missing " + REFRESH_TOKEN_HEADER + " header");
+        }
+        return refreshToken;
+    }
+}
@@ -1,9 +1,25 @@
 package hexlet.code.controller;
 
 import com.querydsl.core.types.Predicate;
+import com.fasterxml.jackson.databind.JsonNode;
+import hexlet.code.component.AsyncTaskSearch;
+import hexlet.code.component.EntityVersions;
+import hexlet.code.component.MergePatchReader;
+import hexlet.code.component.TaskStatistics;
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
+import hexlet.code.dto.TaskBatchItemDto;
+import hexlet.code.dto.TaskBulkUpdateDto;
 import hexlet.code.dto.TaskDto;
 import hexlet.code.model.Task;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.service.TaskBatchResult;
+import hexlet.code.service.TaskBatchService;
+import hexlet.code.service.TaskBulkResult;
+import hexlet.code.service.TaskBulkService;
+import hexlet.code.service.TaskPage;
+import hexlet.code.service.TaskPatchService;
+import hexlet.code.service.TaskSearchService;
 import hexlet.code.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,25 +28,39 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import java.util.NoSuchElementException;
 import javax.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
 import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @AllArgsConstructor
 @RestController
@@ -40,33 +70,103 @@ public class TaskController {
 
     public static final String TASK_CONTROLLER_PATH = "/tasks";
     public static final String ID = "/{id}";
+    public static final String BATCH = "/batch";
+    public static final String EXPORT = "/export";
+    public static final String SEARCH = "/search";
+    public static final String STATS = "/stats";
+    public static final String BULK = "/bulk";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private static final String ONLY_AUTHOR_BY_ID = """
-            @taskRepository.findById(#id).get().getAuthor().getId().toString() == authentication.getName()
+            @ownershipChecker.isTaskAuthor(#id, authentication.getName())
         """;
 
     private final TaskRepository taskRepository;
     private final TaskService taskService;
+    private final TaskSearchService taskSearchService;
+    private final TaskBatchService taskBatchService;
+    private final AsyncTaskSearch asyncTaskSearch;
+    private final TaskStatistics taskStatistics;
+    private final TaskPatchService taskPatchService;
+    private final MergePatchReader mergePatchReader;
+    private final TaskBulkService taskBulkService;
+    private final EntityVersions entityVersions;
 
     @Operation(summary = "Get Tasks by Predicate")
     @ApiResponses(@ApiResponse(responseCode = "200", content =
     @Content(array = @ArraySchema(schema = @Schema(implementation = Task.class)))
     ))
     @GetMapping
-    public Iterable<Task> getFilteredTasks(
+    public DeferredResult<ResponseEntity<List<Task>>> getFilteredTasks(
+            @Parameter(description = "Predicate based on query params")
+            @QuerydslPredicate(root = Task.class) Predicate predicate,
+            @Parameter(description = "Opaque cursor from the " + NEXT_CURSOR_HEADER + " header")
+            @RequestParam(required = false) final String cursor,
+            @Parameter(description = "Page size, capped by tasks.page.max-limit")
+            @RequestParam(defaultValue = "100") final int limit) {
+        return asyncTaskSearch.findPage(predicate, cursor, limit, TaskController::toResponse);
+    }
+
+    @Operation(summary = "Full-text search over Task names and descriptions, ranked by relevance")
+    @ApiResponses(@ApiResponse(responseCode = "200", content =
+    @Content(array = @ArraySchema(schema = @Schema(implementation = Task.class)))
+    ))
+    @GetMapping(SEARCH)
+    public DeferredResult<List<Task>> searchTasks(
+            @Parameter(description = "Words to search; each word also matches as a prefix")
+            @RequestParam final String q,
+            @Parameter(description = "Predicate based on query params")
+            @QuerydslPredicate(root = Task.class) Predicate predicate,
+            @Parameter(description = "Page size, capped by tasks.page.max-limit")
+            @RequestParam(defaultValue = "100") final int limit) {
+        return asyncTaskSearch.search(predicate, q, limit);
+    }
+
+    @Operation(summary = "Task counts per status, executor and label")
+    @GetMapping(STATS)
+    public TaskStatistics.Snapshot getStatistics() {
+        return taskStatistics.snapshot();
+    }
+
+    @Operation(summary = "Export Tasks by Predicate as newline-delimited JSON")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = APPLICATION_NDJSON_VALUE))
+    @GetMapping(path = EXPORT, produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(
             @Parameter(description = "Predicate based on query params")
             @QuerydslPredicate(root = Task.class) Predicate predicate) {
-        return taskRepository.findAll(predicate);
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(out -> taskSearchService.export(predicate, out));
+    }
+
+    private static ResponseEntity<List<Task>> toResponse(final TaskPage page) {
+        final var response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next());
+        }
+        return response.body(page.tasks());
     }
 
     @Operation(summary = "Get Task by Id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task found"),
+            @ApiResponse(responseCode = "304", description = "Task not modified since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Task with that id not found")
     })
     @GetMapping(ID)
-    public Task getById(@PathVariable final Long id) {
-        return taskRepository.findById(id).get();
+    public ResponseEntity<Task> getById(@PathVariable final Long id, final WebRequest request) {
+        // Версия отдельным запросом только для условного GET: обычное чтение остаётся одним запросом
+        if (request.getHeader(IF_NONE_MATCH) != null) {
+            final Long version = entityVersions.find(Task.class, id)
+                    .orElseThrow(() -> new NoSuchElementException("Not found task with 'id': " + id));
+            if (request.checkNotModified(VersionETags.of(version))) {
+                return null;
+            }
+        }
+        final Task task = taskSearchService.findById(id);
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(task.getVersion()))
+                .body(task);
     }
 
     @Operation(summary = "Create new Task")
@@ -77,13 +177,72 @@ public class TaskController {
         return taskService.createNewTask(dto);
     }
 
+    @Operation(summary = "Create Tasks in one transaction, invalid items are reported and skipped")
+    @ApiResponse(responseCode = "201", description = "Valid tasks created")
+    @PostMapping(path = BATCH, produces = APPLICATION_JSON_VALUE, consumes = APPLICATION_JSON_VALUE)
+    @ResponseStatus(CREATED)
+    public TaskBatchResult createTasks(@RequestBody final List<TaskDto> dtos) {
+        return taskBatchService.createTasks(dtos);
+    }
+
+    @Operation(summary = "Update Tasks in one transaction, invalid items are reported and skipped")
+    @ApiResponse(responseCode = "200", description = "Valid tasks updated")
+    @PutMapping(path = BATCH, produces = APPLICATION_JSON_VALUE, consumes = APPLICATION_JSON_VALUE)
+    public TaskBatchResult updateTasks(@RequestBody final List<TaskBatchItemDto> items) {
+        return taskBatchService.updateTasks(items);
+    }
+
     @Operation(summary = "Update Task")
     @ApiResponse(responseCode = "200", description = "Task updated")
     @PutMapping(ID)
-    public Task updateTask(@PathVariable final Long id,
-                           @Parameter(schema = @Schema(implementation = TaskDto.class))
-                           @RequestBody @Valid  final TaskDto dto) {
-        return taskService.updateTask(id, dto);
+    @Transactional
+    public ResponseEntity<Task> updateTask(@PathVariable final Long id,
+                                           @Parameter(schema = @Schema(implementation = TaskDto.class))
+                                           @RequestBody @Valid  final TaskDto dto,
+                                           @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        // Задача загружается в той же транзакции, что и обновление: при параллельной записи
+        // flush упадёт на @Version и тоже вернёт 412
+        final Task current = taskRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Not found task with 'id': " + id));
+        VersionETags.checkIfMatch(VersionETags.parseIfMatch(ifMatch), current.getVersion(),
+                "Task with 'id': " + id);
+        final Task task = taskService.updateTask(id, dto);
+        // Версия увеличивается при flush, ETag должен описывать уже новое состояние
+        taskRepository.flush();
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(task.getVersion()))
+                .body(task);
+    }
+
+    @Operation(summary = "Update only the supplied Task fields (JSON Merge Patch)")
+    @ApiResponse(responseCode = "200", description = "Task updated")
+    @PatchMapping(path = ID, consumes = {MergePatch.MEDIA_TYPE, APPLICATION_JSON_VALUE})
+    public ResponseEntity<Task> patchTask(@PathVariable final Long id,
+                                          @Parameter(schema = @Schema(implementation = TaskDto.class))
+                                          @RequestBody final JsonNode patch,
+                                          @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        final Task task = taskPatchService.patchTask(id, mergePatchReader.read(patch, TaskDto.class),
+                VersionETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(task.getVersion()))
+                .body(task);
+    }
+
+    @Operation(summary = "Change status, executor or labels of the caller's Tasks matching the predicate")
+    @ApiResponse(responseCode = "200", description = "Number of affected tasks and label links")
+    @PatchMapping(path = BULK, produces = APPLICATION_JSON_VALUE, consumes = APPLICATION_JSON_VALUE)
+    public TaskBulkResult updateMatching(@Parameter(description = "Predicate based on query params")
+                                         @QuerydslPredicate(root = Task.class) Predicate predicate,
+                                         @RequestBody final TaskBulkUpdateDto dto) {
+        return taskBulkService.update(predicate, dto);
+    }
+
+    @Operation(summary = "Delete the caller's Tasks matching the predicate")
+    @ApiResponse(responseCode = "200", description = "Number of deleted tasks")
+    @DeleteMapping(BULK)
+    public TaskBulkResult deleteMatching(@Parameter(description = "Predicate based on query params")
+                                         @QuerydslPredicate(root = Task.class) Predicate predicate) {
+        return taskBulkService.delete(predicate);
     }
 
     @Operation(summary = "Delete Task")
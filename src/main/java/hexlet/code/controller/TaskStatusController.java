@@ -1,29 +1,45 @@
 package hexlet.code.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import hexlet.code.component.EntityVersions;
+import hexlet.code.component.JsonListCache;
+import hexlet.code.component.MergePatchReader;
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.TaskStatusDto;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
-import java.util.List;
 import javax.validation.Valid;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
 import static hexlet.code.controller.TaskStatusController.TASK_STATUS_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @AllArgsConstructor
 @RestController
@@ -34,43 +50,97 @@ public class TaskStatusController {
     public static final String TASK_STATUS_CONTROLLER_PATH = "/statuses";
     public static final String ID = "/{id}";
 
+    private static final String ALL_TASK_STATUSES = "taskStatuses";
 
     private final TaskStatusRepository taskStatusRepository;
+    private final JsonListCache jsonListCache;
+    private final MergePatchReader mergePatchReader;
+    private final EntityVersions entityVersions;
 
+    @ApiResponses(@ApiResponse(responseCode = "200", content =
+    @Content(array = @ArraySchema(schema = @Schema(implementation = TaskStatus.class)))
+    ))
     @GetMapping
-    public List<TaskStatus> getAll() {
-        return taskStatusRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> getAll(final WebRequest request) {
+        final var taskStatuses = jsonListCache.get(ALL_TASK_STATUSES, taskStatusRepository::findAll);
+        if (request.checkNotModified(taskStatuses.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_JSON)
+                .eTag(taskStatuses.etag())
+                .body(taskStatuses.json());
     }
 
     @Operation(summary = "Get state by Id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "State found"),
+            @ApiResponse(responseCode = "304", description = "State not modified since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "State with that id not found")
     })
     @GetMapping(ID)
-    public TaskStatus getById(@PathVariable final Long id) {
-        return taskStatusRepository.findById(id).get();
+    @Transactional(readOnly = true)
+    public ResponseEntity<TaskStatus> getById(@PathVariable final Long id, final WebRequest request) {
+        final String currentETag = VersionETags.of(entityVersions.find(TaskStatus.class, id).get());
+        if (request.checkNotModified(currentETag)) {
+            return null;
+        }
+        final TaskStatus taskStatus = taskStatusRepository.findById(id).get();
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(taskStatus.getVersion()))
+                .body(taskStatus);
     }
 
     @PostMapping
     @ResponseStatus(CREATED)
     public TaskStatus createNew(@RequestBody @Valid final TaskStatusDto dto) {
-        return taskStatusRepository.save(TaskStatus.builder()
+        final TaskStatus taskStatus = taskStatusRepository.save(TaskStatus.builder()
                 .name(dto.getName())
                 .build()
         );
+        jsonListCache.invalidate(ALL_TASK_STATUSES);
+        return taskStatus;
     }
 
     @PutMapping(ID)
-    public TaskStatus updateState(@PathVariable final long id, @RequestBody @Valid final TaskStatusDto dto) {
+    public ResponseEntity<TaskStatus> updateState(
+            @PathVariable final long id, @RequestBody @Valid final TaskStatusDto dto,
+            @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
         final TaskStatus taskStatusToUpdate = taskStatusRepository.findById(id).get();
+        VersionETags.checkIfMatch(VersionETags.parseIfMatch(ifMatch), taskStatusToUpdate.getVersion(),
+                "Task status with 'id': " + id);
         taskStatusToUpdate.setName(dto.getName());
-        return taskStatusRepository.save(taskStatusToUpdate);
+        final TaskStatus taskStatus = taskStatusRepository.save(taskStatusToUpdate);
+        jsonListCache.invalidate(ALL_TASK_STATUSES);
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(taskStatus.getVersion()))
+                .body(taskStatus);
+    }
+
+    @PatchMapping(path = ID, consumes = {MergePatch.MEDIA_TYPE, APPLICATION_JSON_VALUE})
+    @Transactional
+    public ResponseEntity<TaskStatus> patch(@PathVariable final long id, @RequestBody final JsonNode patch,
+                                            @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        final MergePatch<TaskStatusDto> changes = mergePatchReader.read(patch, TaskStatusDto.class);
+        final TaskStatus taskStatus = taskStatusRepository.findById(id).get();
+        VersionETags.checkIfMatch(VersionETags.parseIfMatch(ifMatch), taskStatus.getVersion(),
+                "Task status with 'id': " + id);
+        if (changes.has("name")) {
+            taskStatus.setName(changes.values().getName());
+        }
+        // Изменения сохранит dirty checking; flush нужен, чтобы ETag уже содержал новую версию
+        taskStatusRepository.flush();
+        jsonListCache.invalidate(ALL_TASK_STATUSES);
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(taskStatus.getVersion()))
+                .body(taskStatus);
     }
 
     @DeleteMapping(ID)
     public void delete(@PathVariable final long id) {
         taskStatusRepository.deleteById(id);
+        jsonListCache.invalidate(ALL_TASK_STATUSES);
     }
 
 }
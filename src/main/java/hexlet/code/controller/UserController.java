@@ -1,5 +1,9 @@
 package hexlet.code.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import hexlet.code.component.MergePatchReader;
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.UserDto;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
@@ -12,19 +16,26 @@ import io.swagger.v3.oas.annotations.Operation;
 import java.util.List;
 import javax.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @AllArgsConstructor
 @RestController
@@ -34,11 +45,12 @@ public class UserController {
     public static final String ID = "/{id}";
 
     private static final String ONLY_OWNER_BY_ID = """
-            @userRepository.findById(#id).get().getId().toString() == authentication.getName()
+            @ownershipChecker.isSameUser(#id, authentication.getName())
         """;
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final MergePatchReader mergePatchReader;
 
     @Operation(summary = "Create new user")
     @ApiResponse(responseCode = "201", description = "User created")
@@ -53,22 +65,60 @@ public class UserController {
     @Content(schema = @Schema(implementation = User.class))
     ))
     @GetMapping
+    @Transactional(readOnly = true)
     public List<User> getAll() {
         return userRepository.findAll()
                 .stream()
                 .toList();
     }
 
-    @ApiResponses(@ApiResponse(responseCode = "200"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "304", description = "User not modified since the version in If-None-Match")
+    })
     @GetMapping(ID)
-    public User getUserById(@PathVariable final Long id) {
-        return userRepository.findById(id).get();
+    @Transactional(readOnly = true)
+    public ResponseEntity<User> getUserById(@PathVariable final Long id, final WebRequest request) {
+        // Для 304 достаточно версии, сама сущность не загружается
+        final String currentETag = VersionETags.of(userRepository.findVersionById(id).get());
+        if (request.checkNotModified(currentETag)) {
+            return null;
+        }
+        final User user = userRepository.findById(id).get();
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(user.getVersion()))
+                .body(user);
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "412", description = "User version does not match If-Match")
+    })
     @PutMapping(ID)
     @PreAuthorize(ONLY_OWNER_BY_ID)
-    public User update(@PathVariable final long id, @RequestBody @Valid final UserDto dto) {
-        return userService.updateUser(id, dto);
+    public ResponseEntity<User> update(@PathVariable final long id,
+                                       @RequestBody @Valid final UserDto dto,
+                                       @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        final User user = userService.updateUser(id, dto, VersionETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(user.getVersion()))
+                .body(user);
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "412", description = "User version does not match If-Match")
+    })
+    @PatchMapping(path = ID, consumes = {MergePatch.MEDIA_TYPE, APPLICATION_JSON_VALUE})
+    @PreAuthorize(ONLY_OWNER_BY_ID)
+    public ResponseEntity<User> patch(@PathVariable final long id,
+                                      @RequestBody final JsonNode patch,
+                                      @RequestHeader(value = IF_MATCH, required = false) final String ifMatch) {
+        final User user = userService.patchUser(id, mergePatchReader.read(patch, UserDto.class),
+                VersionETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionETags.of(user.getVersion()))
+                .body(user);
     }
 
     @DeleteMapping(ID)
@@ -0,0 +1,14 @@
+package hexlet.code.dto;
+
+import java.util.Set;
+
+// Тело JSON Merge Patch (RFC 7396): значения в DTO и имена полей, которые действительно пришли.
+// null в values означает либо "поле не передано", либо "передан null" - различать по fields
+public record MergePatch<T>(T values, Set<String> fields) {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    public boolean has(final String field) {
+        return fields.contains(field);
+    }
+}
@@ -0,0 +1,19 @@
+package hexlet.code.dto;
+
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchItemDto {
+
+    @NotNull
+    private Long id;
+
+    @NotNull
+    private TaskDto task;
+
+}
@@ -0,0 +1,22 @@
+package hexlet.code.dto;
+
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Незаданные поля не меняются
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkUpdateDto {
+
+    private Long taskStatusId;
+
+    private Long executorId;
+
+    private Set<Long> addLabelIds;
+
+    private Set<Long> removeLabelIds;
+
+}
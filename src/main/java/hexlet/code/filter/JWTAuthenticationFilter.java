@@ -1,10 +1,11 @@
 package hexlet.code.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import hexlet.code.component.JWTHelper;
+import hexlet.code.component.PasswordHashingRejectedException;
 import hexlet.code.dto.LoginDto;
+import hexlet.code.service.IssuedTokens;
+import hexlet.code.service.RefreshTokenService;
 import java.io.IOException;
-import java.util.Map;
 import java.util.stream.Collectors;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
@@ -19,19 +20,23 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static hexlet.code.controller.RefreshTokenController.REFRESH_TOKEN_HEADER;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private static final ObjectMapper MAPPER = new ObjectMapper().configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-    private final JWTHelper jwtHelper;
+    private final RefreshTokenService refreshTokenService;
 
     public JWTAuthenticationFilter(final AuthenticationManager authenticationManager,
                                    final RequestMatcher loginRequest,
-                                   final JWTHelper jwtHelper) {
+                                   final RefreshTokenService refreshTokenService) {
         super(authenticationManager);
         super.setRequiresAuthenticationRequestMatcher(loginRequest);
-        this.jwtHelper = jwtHelper;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Override
@@ -43,7 +48,14 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 loginData.getPassword()
         );
         setDetails(request, authRequest);
-        return getAuthenticationManager().authenticate(authRequest);
+        try {
+            return getAuthenticationManager().authenticate(authRequest);
+        } catch (PasswordHashingRejectedException e) {
+            // null - аутентификация не завершена, цепочка фильтров дальше не идёт
+            response.setStatus(SERVICE_UNAVAILABLE.value());
+            response.setHeader(RETRY_AFTER, String.valueOf(e.getRetryAfterSec()));
+            return null;
+        }
     }
 
     private LoginDto getLoginData(final HttpServletRequest request) throws AuthenticationException {
@@ -63,8 +75,11 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                                             final FilterChain chain,
                                             final Authentication authResult) throws IOException {
         final UserDetails user = (UserDetails) authResult.getPrincipal();
-        final String token = jwtHelper.expiring(Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, user.getUsername()));
+        // Имя пользователя здесь - его id, см. UserServiceImpl.buildSpringUser
+        final IssuedTokens tokens = refreshTokenService.issue(Long.valueOf(user.getUsername()));
 
-        response.getWriter().print(token);
+        response.setHeader(CACHE_CONTROL, "no-store");
+        response.setHeader(REFRESH_TOKEN_HEADER, tokens.refreshToken());
+        response.getWriter().print(tokens.accessToken());
     }
 }
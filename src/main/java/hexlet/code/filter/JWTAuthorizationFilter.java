@@ -1,6 +1,6 @@
 package hexlet.code.filter;
 
-import hexlet.code.component.JWTHelper;
+import hexlet.code.component.VerifiedTokenCache;
 import java.io.IOException;
 import java.util.Optional;
 import javax.servlet.FilterChain;
@@ -21,12 +21,12 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
     private static final String BEARER = "Bearer";
 
     private final RequestMatcher publicUrls;
-    private final JWTHelper jwtHelper;
+    private final VerifiedTokenCache tokenCache;
 
     public JWTAuthorizationFilter(final RequestMatcher publicUrls,
-                                  final JWTHelper jwtHelper) {
+                                  final VerifiedTokenCache tokenCache) {
         this.publicUrls = publicUrls;
-        this.jwtHelper = jwtHelper;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -40,9 +40,8 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
                                     final FilterChain filterChain) throws ServletException, IOException {
 
         final var authToken = Optional.ofNullable(request.getHeader(AUTHORIZATION))
-                .map(header -> header.replaceFirst("^" + BEARER, ""))
-                .map(String::trim)
-                .map(jwtHelper::verify)
+                .map(JWTAuthorizationFilter::extractToken)
+                .map(tokenCache::verify)
                 .map(claims -> claims.get(SPRING_SECURITY_FORM_USERNAME_KEY))
                 .map(Object::toString)
                 .map(this::buildAuthToken)
@@ -53,6 +52,11 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    static String extractToken(final String header) {
+        final String token = header.startsWith(BEARER) ? header.substring(BEARER.length()) : header;
+        return token.trim();
+    }
+
     private UsernamePasswordAuthenticationToken buildAuthToken(final String username) {
         return new UsernamePasswordAuthenticationToken(
                 username,
@@ -0,0 +1,70 @@
+package hexlet.code.filter;
+
+import hexlet.code.component.AdmissionControl;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+// Стоит между JWTAuthorizationFilter и JWTAuthenticationFilter: пользователь уже известен
+// из проверенного токена, а вход и регистрация ограничиваются по IP до того, как дойдут до BCrypt.
+// За прокси адрес клиента берётся из X-Forwarded-For (server.forward-headers-strategy)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long OVERLOAD_RETRY_AFTER_SEC = 1;
+
+    private final RequestMatcher perClientRequests;
+    private final AdmissionControl admissionControl;
+
+    public RateLimitFilter(final RequestMatcher perClientRequests,
+                           final AdmissionControl admissionControl) {
+        this.perClientRequests = perClientRequests;
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        if (!admissionControl.enter()) {
+            reject(response, SERVICE_UNAVAILABLE.value(), OVERLOAD_RETRY_AFTER_SEC);
+            return;
+        }
+        try {
+            final long retryAfter = acquire(request);
+            if (retryAfter > 0) {
+                reject(response, TOO_MANY_REQUESTS.value(), retryAfter);
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionControl.exit();
+        }
+    }
+
+    private long acquire(final HttpServletRequest request) {
+        if (perClientRequests.matches(request)) {
+            return admissionControl.acquireForClient(request.getRemoteAddr());
+        }
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return admissionControl.acquireForUser(authentication.getName());
+        }
+        return 0;
+    }
+
+    private static void reject(final HttpServletResponse response, final int status, final long retryAfterSec) {
+        response.setStatus(status);
+        response.setHeader(RETRY_AFTER, String.valueOf(retryAfterSec));
+    }
+}
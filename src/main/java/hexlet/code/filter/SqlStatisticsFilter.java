@@ -0,0 +1,148 @@
+package hexlet.code.filter;
+
+import hexlet.code.component.SqlStatistics;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.Callable;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private static final String STATISTICS_ATTRIBUTE = SqlStatisticsFilter.class.getName() + ".statistics";
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM
+    );
+
+    private final boolean headers;
+    private final long warnThreshold;
+
+    public SqlStatisticsFilter(@Value("${sql-statistics.headers:false}") final boolean headers,
+                               @Value("${sql-statistics.warn-threshold:50}") final long warnThreshold) {
+        this.headers = headers;
+        this.warnThreshold = warnThreshold;
+    }
+
+    public static SqlStatistics statistics(final ServletRequest request) {
+        return (SqlStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+    }
+
+    // DeferredResult завершается повторным dispatch, итог считаем на нём
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics statistics = statistics(request);
+        if (statistics == null) {
+            statistics = new SqlStatistics();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        }
+
+        // Заголовки нельзя добавить после отправки тела, поэтому в отладочном режиме тело буферизуется
+        HttpServletResponse responseToUse = response;
+        if (headers && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            responseToUse = new HeaderBufferingResponse(response);
+        }
+
+        SqlStatistics.bind(statistics);
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            SqlStatistics.unbind();
+        }
+
+        if (!isAsyncStarted(request)) {
+            report(request, responseToUse, statistics);
+        }
+    }
+
+    private void report(final HttpServletRequest request,
+                        final HttpServletResponse response,
+                        final SqlStatistics statistics) throws IOException {
+        final long statements = statistics.statementCount();
+        if (statements > warnThreshold) {
+            log.warn("{} {} issued {} SQL statements in {} ms",
+                    request.getMethod(), request.getRequestURI(), statements, statistics.elapsedMillis());
+        }
+
+        final ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.setHeader(STATEMENTS_HEADER, String.valueOf(statements));
+            wrapper.setHeader(TIME_HEADER, String.valueOf(statistics.elapsedMillis()));
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // Потоковые ответы пишутся сразу в сокет: буфер держал бы в памяти всю выгрузку.
+    // Заголовков у них нет, SQL учитывается только в логе
+    private static final class HeaderBufferingResponse extends ContentCachingResponseWrapper {
+
+        HeaderBufferingResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isStreaming() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isStreaming() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        private boolean isStreaming() {
+            final String contentType = getContentType();
+            return contentType != null && STREAMING_TYPES.stream()
+                    .anyMatch(type -> type.isCompatibleWith(MediaType.parseMediaType(contentType)));
+        }
+    }
+
+    // Callable и StreamingResponseBody выполняются в пуле Spring MVC уже после выхода из фильтра,
+    // их SQL попадает в статистику запроса и учитывается на завершающем async dispatch
+    public static final class AsyncBinding implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void preProcess(final NativeWebRequest request, final Callable<T> task) {
+            final Object statistics = request.getAttribute(STATISTICS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (statistics != null) {
+                SqlStatistics.bind((SqlStatistics) statistics);
+            }
+        }
+
+        @Override
+        public <T> void postProcess(final NativeWebRequest request, final Callable<T> task, final Object result) {
+            SqlStatistics.unbind();
+        }
+    }
+}
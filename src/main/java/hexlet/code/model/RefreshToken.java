@@ -0,0 +1,48 @@
+package hexlet.code.model;
+
+import java.util.Date;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.TemporalType.TIMESTAMP;
+
+// В базе лежит только HMAC токена; family - цепочка ротаций от одного входа,
+// повторное предъявление уже использованного токена отзывает всю цепочку
+@Entity
+@Getter
+@Setter
+@Builder
+@Table(name = "refresh_tokens")
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long id;
+
+    private String tokenHash;
+
+    private Long userId;
+
+    private String family;
+
+    @Temporal(TIMESTAMP)
+    private Date createdAt;
+
+    @Temporal(TIMESTAMP)
+    private Date expiresAt;
+
+    @Temporal(TIMESTAMP)
+    private Date revokedAt;
+
+}
@@ -0,0 +1,4 @@
+package hexlet.code.service;
+
+public record IssuedTokens(String accessToken, String refreshToken) {
+}
@@ -0,0 +1,37 @@
+package hexlet.code.service;
+
+import java.util.concurrent.CancellationException;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+public final class QueryCancellation {
+
+    private volatile Session session;
+    private volatile boolean cancelled;
+
+    // Session.cancelQuery() - единственный метод сессии, который можно вызывать из другого потока.
+    // Срок может истечь, когда поиск уже закрыл сессию: отменять тогда нечего
+    public void cancel() {
+        cancelled = true;
+        final Session current = session;
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        try {
+            current.cancelQuery();
+        } catch (IllegalStateException | HibernateException e) {
+            // Сессия закрылась между проверкой и отменой
+        }
+    }
+
+    void register(final Session current) {
+        session = current;
+        throwIfCancelled();
+    }
+
+    void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Task search cancelled");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package hexlet.code.service;
+
+public interface RefreshTokenService {
+
+    IssuedTokens issue(Long userId);
+
+    IssuedTokens refresh(String refreshToken);
+
+    void revoke(String refreshToken);
+
+    void revokeAll(Long userId);
+}
@@ -0,0 +1,116 @@
+package hexlet.code.service;
+
+import hexlet.code.component.JWTHelper;
+import hexlet.code.model.RefreshToken;
+import hexlet.code.repository.RefreshTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
+
+// Обновление access-токена стоит один поиск по уникальному индексу и один HMAC, без BCrypt.
+// Токен случайный, поэтому достаточно HMAC с секретом сервера: утечка таблицы не даёт рабочих токенов
+@Slf4j
+@Service
+@Transactional
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JWTHelper jwtHelper;
+    private final SecretKeySpec key;
+    private final long ttlMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenServiceImpl(final RefreshTokenRepository refreshTokenRepository,
+                                   final JWTHelper jwtHelper,
+                                   @Value("${jwt.refresh.secret:${jwt.secret:secret}}") final String secret,
+                                   @Value("${jwt.refresh.expiration-sec:2592000}") final long ttlSec) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtHelper = jwtHelper;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.ttlMs = ttlSec * 1000;
+    }
+
+    @Override
+    public IssuedTokens issue(final Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    // Исключение не откатывает транзакцию: отзыв цепочки при повторном использовании должен сохраниться
+    @Override
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public IssuedTokens refresh(final String refreshToken) {
+        final Date now = new Date();
+        final RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Unknown refresh token"));
+        if (current.getExpiresAt().before(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (refreshTokenRepository.revoke(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamily(), now);
+            log.warn("Refresh token reuse for user {}, token family revoked", current.getUserId());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+        return issue(current.getUserId(), current.getFamily());
+    }
+
+    @Override
+    public void revoke(final String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamily(), new Date()));
+    }
+
+    @Override
+    public void revokeAll(final Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, new Date());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-ms:3600000}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(new Date());
+    }
+
+    private IssuedTokens issue(final Long userId, final String family) {
+        final byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        final String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        final long now = System.currentTimeMillis();
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .userId(userId)
+                .family(family)
+                .createdAt(new Date(now))
+                .expiresAt(new Date(now + ttlMs))
+                .build());
+
+        final String accessToken = jwtHelper.expiring(Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, userId.toString()));
+        return new IssuedTokens(accessToken, refreshToken);
+    }
+
+    private String hash(final String token) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return Base64.getEncoder().encodeToString(mac.doFinal(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
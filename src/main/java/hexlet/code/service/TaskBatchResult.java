@@ -0,0 +1,10 @@
+package hexlet.code.service;
+
+import hexlet.code.model.Task;
+import java.util.List;
+
+public record TaskBatchResult(List<Task> tasks, List<ItemError> errors) {
+
+    public record ItemError(int index, List<String> messages) {
+    }
+}
@@ -0,0 +1,12 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.TaskBatchItemDto;
+import hexlet.code.dto.TaskDto;
+import java.util.List;
+
+public interface TaskBatchService {
+
+    TaskBatchResult createTasks(List<TaskDto> dtos);
+
+    TaskBatchResult updateTasks(List<TaskBatchItemDto> items);
+}
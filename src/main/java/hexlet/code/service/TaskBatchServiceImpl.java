@@ -0,0 +1,228 @@
+package hexlet.code.service;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQuery;
+import hexlet.code.InvalidRequestException;
+import hexlet.code.dto.TaskBatchItemDto;
+import hexlet.code.dto.TaskDto;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.TaskRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static hexlet.code.model.QLabel.label;
+import static hexlet.code.model.QTask.task;
+import static hexlet.code.model.QTaskStatus.taskStatus;
+import static hexlet.code.model.QUser.user;
+import static javax.persistence.LockModeType.PESSIMISTIC_READ;
+import static javax.persistence.LockModeType.PESSIMISTIC_WRITE;
+
+// Элементы пачки проверяются до записи, а связанные строки и обновляемые задачи блокируются до коммита:
+// ограничения БД (not null, внешние ключи) не могут сорваться на одном элементе и откатить всю пачку
+@Service
+@Transactional
+public class TaskBatchServiceImpl implements TaskBatchService {
+
+    private static final List<String> NULL_ITEM = List.of("must not be null");
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final UserService userService;
+    private final Validator validator;
+    private final int maxSize;
+
+    public TaskBatchServiceImpl(final TaskRepository taskRepository,
+                                final EntityManager entityManager,
+                                final UserService userService,
+                                final Validator validator,
+                                @Value("${tasks.batch.max-size:1000}") final int maxSize) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.userService = userService;
+        this.validator = validator;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public TaskBatchResult createTasks(final List<TaskDto> dtos) {
+        checkSize(dtos);
+        final References references = loadReferences(dtos.stream().filter(Objects::nonNull).toList());
+        final User author = userService.getCurrentUser();
+
+        final List<Task> tasks = new ArrayList<>();
+        final List<TaskBatchResult.ItemError> errors = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            final TaskDto dto = dtos.get(i);
+            final List<String> messages = dto == null ? NULL_ITEM : validate(dto, references);
+            if (messages.isEmpty()) {
+                final Task task = Task.builder().author(author).build();
+                references.apply(task, dto);
+                tasks.add(task);
+            } else {
+                errors.add(new TaskBatchResult.ItemError(i, messages));
+            }
+        }
+
+        // Вставки уходят JDBC-батчами (hibernate.jdbc.batch_size) при коммите
+        return new TaskBatchResult(taskRepository.saveAll(tasks), errors);
+    }
+
+    @Override
+    public TaskBatchResult updateTasks(final List<TaskBatchItemDto> items) {
+        checkSize(items);
+        final List<TaskBatchItemDto> present = items.stream().filter(Objects::nonNull).toList();
+        final References references = loadReferences(present.stream()
+                .map(TaskBatchItemDto::getTask)
+                .filter(Objects::nonNull)
+                .toList());
+        final Map<Long, Task> tasksById = byId(
+                findLocked(task, task.id, ids(present.stream().map(TaskBatchItemDto::getId)), PESSIMISTIC_WRITE),
+                Task::getId
+        );
+
+        final List<Task> tasks = new ArrayList<>();
+        final List<TaskBatchResult.ItemError> errors = new ArrayList<>();
+        final Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            final TaskBatchItemDto item = items.get(i);
+            final List<String> messages = item == null ? NULL_ITEM : validate(item, tasksById, seenIds, references);
+            if (messages.isEmpty()) {
+                final Task updated = tasksById.get(item.getId());
+                references.apply(updated, item.getTask());
+                tasks.add(updated);
+            } else {
+                errors.add(new TaskBatchResult.ItemError(i, messages));
+            }
+        }
+
+        return new TaskBatchResult(tasks, errors);
+    }
+
+    private void checkSize(final Collection<?> items) {
+        if (items.size() > maxSize) {
+            throw new InvalidRequestException("Batch size must not exceed " + maxSize);
+        }
+    }
+
+    private List<String> validate(final TaskBatchItemDto item,
+                                  final Map<Long, Task> tasksById,
+                                  final Set<Long> seenIds,
+                                  final References references) {
+        if (item.getId() == null) {
+            return List.of("id: must not be null");
+        }
+        if (!tasksById.containsKey(item.getId())) {
+            return List.of("Not found task with 'id': " + item.getId());
+        }
+        // Повтор id в пачке молча затёр бы предыдущие изменения той же задачи
+        if (!seenIds.add(item.getId())) {
+            return List.of("Duplicate task with 'id': " + item.getId());
+        }
+        return item.getTask() == null ? List.of("task: must not be null") : validate(item.getTask(), references);
+    }
+
+    private List<String> validate(final TaskDto dto, final References references) {
+        final List<String> messages = validator.validate(dto)
+                .stream()
+                .map(TaskBatchServiceImpl::toMessage)
+                .collect(Collectors.toCollection(ArrayList::new));
+        messages.addAll(references.missing(dto));
+        return messages;
+    }
+
+    private static String toMessage(final ConstraintViolation<TaskDto> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    // Все связанные сущности пачки загружаются тремя запросами, а не по запросу на задачу.
+    // Разделяемая блокировка не даёт удалить их до коммита, пока пачка на них ссылается
+    private References loadReferences(final List<TaskDto> dtos) {
+        final Set<Long> executorIds = ids(dtos.stream().map(TaskDto::getExecutorId));
+        final Set<Long> taskStatusIds = ids(dtos.stream().map(TaskDto::getTaskStatusId));
+        final Set<Long> labelIds = ids(dtos.stream()
+                .map(TaskDto::getLabelIds)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream));
+
+        return new References(
+                byId(findLocked(user, user.id, executorIds, PESSIMISTIC_READ), User::getId),
+                byId(findLocked(taskStatus, taskStatus.id, taskStatusIds, PESSIMISTIC_READ), TaskStatus::getId),
+                byId(findLocked(label, label.id, labelIds, PESSIMISTIC_READ), Label::getId)
+        );
+    }
+
+    private <T> List<T> findLocked(final EntityPath<T> entity,
+                                   final NumberPath<Long> id,
+                                   final Set<Long> ids,
+                                   final LockModeType lockMode) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return new JPAQuery<>(entityManager)
+                .select(entity)
+                .from(entity)
+                .where(id.in(ids))
+                .setLockMode(lockMode)
+                .fetch();
+    }
+
+    private static Set<Long> ids(final Stream<Long> ids) {
+        return ids.filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<Long, T> byId(final List<T> entities, final Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private record References(Map<Long, User> executors,
+                              Map<Long, TaskStatus> taskStatuses,
+                              Map<Long, Label> labels) {
+
+        List<String> missing(final TaskDto dto) {
+            final List<String> messages = new ArrayList<>();
+            if (dto.getExecutorId() != null && !executors.containsKey(dto.getExecutorId())) {
+                messages.add("Not found executor with 'id': " + dto.getExecutorId());
+            }
+            if (dto.getTaskStatusId() != null && !taskStatuses.containsKey(dto.getTaskStatusId())) {
+                messages.add("Not found task status with 'id': " + dto.getTaskStatusId());
+            }
+            if (dto.getLabelIds() != null) {
+                dto.getLabelIds().stream()
+                        .filter(id -> !labels.containsKey(id))
+                        .forEach(id -> messages.add("Not found label with 'id': " + id));
+            }
+            return messages;
+        }
+
+        void apply(final Task task, final TaskDto dto) {
+            task.setName(dto.getName());
+            task.setDescription(dto.getDescription());
+            task.setExecutor(dto.getExecutorId() == null ? null : executors.get(dto.getExecutorId()));
+            task.setTaskStatus(taskStatuses.get(dto.getTaskStatusId()));
+            final Set<Label> taskLabels = new HashSet<>();
+            if (dto.getLabelIds() != null) {
+                dto.getLabelIds().forEach(id -> taskLabels.add(labels.get(id)));
+            }
+            task.setLabels(taskLabels);
+        }
+    }
+}
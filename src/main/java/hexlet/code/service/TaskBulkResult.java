@@ -0,0 +1,4 @@
+package hexlet.code.service;
+
+public record TaskBulkResult(long tasks, long labelsAdded, long labelsRemoved) {
+}
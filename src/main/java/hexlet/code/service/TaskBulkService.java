@@ -0,0 +1,11 @@
+package hexlet.code.service;
+
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.TaskBulkUpdateDto;
+
+public interface TaskBulkService {
+
+    TaskBulkResult update(Predicate predicate, TaskBulkUpdateDto dto);
+
+    TaskBulkResult delete(Predicate predicate);
+}
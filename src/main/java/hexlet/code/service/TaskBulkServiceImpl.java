@@ -0,0 +1,167 @@
+package hexlet.code.service;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import hexlet.code.InvalidRequestException;
+import hexlet.code.component.TaskChangeListener;
+import hexlet.code.component.TaskStatistics;
+import hexlet.code.dto.TaskBulkUpdateDto;
+import hexlet.code.model.Label;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import lombok.AllArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static hexlet.code.model.QTask.task;
+
+// Сначала выбираются id задач (фильтр может требовать join, а bulk-запросы его не допускают),
+// затем изменения идут set-based запросами порциями id. Сущности задач не загружаются
+@Service
+@Transactional
+@AllArgsConstructor
+public class TaskBulkServiceImpl implements TaskBulkService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String TASKS_LABELS = "tasks_labels";
+
+    private final EntityManager entityManager;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final TaskStatusRepository taskStatusRepository;
+    private final LabelRepository labelRepository;
+    private final TaskChangeListener taskChangeListener;
+    private final TaskStatistics taskStatistics;
+
+    @Override
+    public TaskBulkResult update(final Predicate predicate, final TaskBulkUpdateDto dto) {
+        if (dto.getTaskStatusId() == null && dto.getExecutorId() == null
+                && isEmpty(dto.getAddLabelIds()) && isEmpty(dto.getRemoveLabelIds())) {
+            throw new InvalidRequestException("Bulk update requires at least one change");
+        }
+        final TaskStatus taskStatus = dto.getTaskStatusId() == null ? null : reference(
+                TaskStatus.class, dto.getTaskStatusId(), taskStatusRepository.existsById(dto.getTaskStatusId()));
+        final User executor = dto.getExecutorId() == null ? null : reference(
+                User.class, dto.getExecutorId(), userRepository.existsById(dto.getExecutorId()));
+        checkLabels(dto.getAddLabelIds());
+        checkLabels(dto.getRemoveLabelIds());
+
+        final List<Long> ids = modifiableTaskIds(predicate);
+        final TaskStatistics.Snapshot before = taskStatistics.count(entityManager, ids);
+        long labelsAdded = 0;
+        long labelsRemoved = 0;
+        if (taskStatus != null || executor != null) {
+            forEachChunk(ids, chunk -> {
+                final JPAUpdateClause update = new JPAUpdateClause(entityManager, task).where(task.id.in(chunk));
+                if (taskStatus != null) {
+                    update.set(task.taskStatus, taskStatus);
+                }
+                if (executor != null) {
+                    update.set(task.executor, executor);
+                }
+                return update.execute();
+            });
+        }
+        if (dto.getAddLabelIds() != null) {
+            for (final Long labelId : dto.getAddLabelIds()) {
+                labelsAdded += forEachChunk(ids, chunk -> nativeUpdate("""
+                        insert into tasks_labels (task_id, labels_id)
+                        select t.id, cast(:labelId as bigint) from tasks t
+                        where t.id in (:ids)
+                          and not exists (
+                            select 1 from tasks_labels tl where tl.task_id = t.id and tl.labels_id = :labelId
+                          )
+                        """)
+                        .setParameter("labelId", labelId)
+                        .setParameter("ids", chunk)
+                        .executeUpdate());
+            }
+        }
+        if (!isEmpty(dto.getRemoveLabelIds())) {
+            labelsRemoved = forEachChunk(ids, chunk -> nativeUpdate(
+                    "delete from tasks_labels where task_id in (:ids) and labels_id in (:labelIds)")
+                    .setParameter("ids", chunk)
+                    .setParameter("labelIds", dto.getRemoveLabelIds())
+                    .executeUpdate());
+        }
+
+        taskChangeListener.afterBulkUpdate(before, taskStatistics.count(entityManager, ids));
+        return new TaskBulkResult(ids.size(), labelsAdded, labelsRemoved);
+    }
+
+    @Override
+    public TaskBulkResult delete(final Predicate predicate) {
+        final List<Long> ids = modifiableTaskIds(predicate);
+        final TaskStatistics.Snapshot before = taskStatistics.count(entityManager, ids);
+        final long deleted = forEachChunk(ids, chunk -> {
+            nativeUpdate("delete from tasks_labels where task_id in (:ids)")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+            return new JPADeleteClause(entityManager, task).where(task.id.in(chunk)).execute();
+        });
+
+        taskChangeListener.afterBulkDelete(ids, before);
+        return new TaskBulkResult(deleted, 0, 0);
+    }
+
+    // Менять можно только свои задачи, как и в ONLY_AUTHOR_BY_ID
+    private List<Long> modifiableTaskIds(final Predicate predicate) {
+        // Без параметров запроса резолвер подставляет пустой BooleanBuilder, а не null
+        if (predicate == null || !new BooleanBuilder(predicate).hasValue()) {
+            throw new InvalidRequestException("Bulk operations require at least one filter");
+        }
+        return new JPAQuery<Long>(entityManager)
+                .select(task.id)
+                .from(task)
+                .where(ExpressionUtils.allOf(predicate, task.author.id.eq(userService.getCurrentUserId())))
+                .orderBy(task.id.asc())
+                .fetch();
+    }
+
+    // Hibernate по умолчанию сбрасывает весь кэш второго уровня после native-запроса,
+    // поэтому явно указываем, что меняется только таблица связей задач и меток
+    private Query nativeUpdate(final String sql) {
+        final Query query = entityManager.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TASKS_LABELS);
+        return query;
+    }
+
+    private void checkLabels(final Collection<Long> labelIds) {
+        if (labelIds != null) {
+            labelIds.forEach(id -> reference(Label.class, id, labelRepository.existsById(id)));
+        }
+    }
+
+    private <T> T reference(final Class<T> type, final Long id, final boolean exists) {
+        if (!exists) {
+            throw new NoSuchElementException("Not found " + type.getSimpleName() + " with 'id': " + id);
+        }
+        return entityManager.getReference(type, id);
+    }
+
+    private static boolean isEmpty(final Collection<Long> ids) {
+        return ids == null || ids.isEmpty();
+    }
+
+    private static long forEachChunk(final List<Long> ids, final ToLongFunction<List<Long>> statement) {
+        long affected = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            affected += statement.applyAsLong(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+        return affected;
+    }
+}
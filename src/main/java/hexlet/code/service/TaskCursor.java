@@ -0,0 +1,40 @@
+package hexlet.code.service;
+
+import hexlet.code.InvalidRequestException;
+import hexlet.code.model.Task;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+public record TaskCursor(Date createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(final Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getId());
+    }
+
+    public static TaskCursor decode(final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = value.indexOf(SEPARATOR);
+            final Instant createdAt = Instant.parse(value.substring(0, separator));
+            return new TaskCursor(Timestamp.from(createdAt), Long.valueOf(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        // Timestamp хранит наносекунды, Date.toInstant() их не теряет
+        final String value = createdAt.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
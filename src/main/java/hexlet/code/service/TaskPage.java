@@ -0,0 +1,7 @@
+package hexlet.code.service;
+
+import hexlet.code.model.Task;
+import java.util.List;
+
+public record TaskPage(List<Task> tasks, String next) {
+}
@@ -0,0 +1,11 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.MergePatch;
+import hexlet.code.dto.TaskDto;
+import hexlet.code.model.Task;
+import java.util.Set;
+
+public interface TaskPatchService {
+
+    Task patchTask(Long id, MergePatch<TaskDto> patch, Set<Long> expectedVersions);
+}
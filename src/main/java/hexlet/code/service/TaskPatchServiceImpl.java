@@ -0,0 +1,76 @@
+package hexlet.code.service;
+
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
+import hexlet.code.dto.TaskDto;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+@AllArgsConstructor
+public class TaskPatchServiceImpl implements TaskPatchService {
+
+    private final TaskRepository taskRepository;
+    private final TaskStatusRepository taskStatusRepository;
+    private final LabelRepository labelRepository;
+    private final UserRepository userRepository;
+
+    // Связанные сущности загружаются, только если их поле есть в патче
+    @Override
+    public Task patchTask(final Long id, final MergePatch<TaskDto> patch, final Set<Long> expectedVersions) {
+        final Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Not found task with 'id': " + id));
+        VersionETags.checkIfMatch(expectedVersions, task.getVersion(), "Task with 'id': " + id);
+        final TaskDto values = patch.values();
+
+        if (patch.has("name")) {
+            task.setName(values.getName());
+        }
+        if (patch.has("description")) {
+            task.setDescription(values.getDescription());
+        }
+        if (patch.has("executorId")) {
+            task.setExecutor(values.getExecutorId() == null ? null : userRepository.findById(values.getExecutorId())
+                    .orElseThrow(() -> notFound("executor", values.getExecutorId())));
+        }
+        if (patch.has("taskStatusId")) {
+            task.setTaskStatus(taskStatusRepository.findById(values.getTaskStatusId())
+                    .orElseThrow(() -> notFound("task status", values.getTaskStatusId())));
+        }
+        if (patch.has("labelIds")) {
+            task.setLabels(labels(values.getLabelIds()));
+        }
+        return task;
+    }
+
+    private Set<Label> labels(final Collection<Long> labelIds) {
+        if (labelIds == null || labelIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        final Set<Long> ids = new HashSet<>(labelIds);
+        final List<Label> labels = labelRepository.findAllById(ids);
+        if (labels.size() != ids.size()) {
+            final Set<Long> missing = new HashSet<>(ids);
+            labels.forEach(label -> missing.remove(label.getId()));
+            throw notFound("label", missing.iterator().next());
+        }
+        return new HashSet<>(labels);
+    }
+
+    private static NoSuchElementException notFound(final String entity, final Long id) {
+        return new NoSuchElementException("Not found " + entity + " with 'id': " + id);
+    }
+}
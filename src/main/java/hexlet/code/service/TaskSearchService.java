@@ -0,0 +1,18 @@
+package hexlet.code.service;
+
+import com.querydsl.core.types.Predicate;
+import hexlet.code.model.Task;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface TaskSearchService {
+
+    TaskPage findPage(Predicate predicate, String cursor, int limit, QueryCancellation cancellation);
+
+    List<Task> search(Predicate predicate, String query, int limit, QueryCancellation cancellation);
+
+    Task findById(Long id);
+
+    void export(Predicate predicate, OutputStream out) throws IOException;
+}
@@ -0,0 +1,197 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import hexlet.code.InvalidRequestException;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.model.Task;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static hexlet.code.model.QTask.task;
+
+@Service
+@Transactional(readOnly = true)
+public class TaskSearchServiceImpl implements TaskSearchService {
+
+    private static final int SEARCH_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final TaskSearchIndex searchIndex;
+    private final ObjectWriter taskWriter;
+    private final int maxLimit;
+    private final int exportFetchSize;
+    private final long statementTimeoutMillis;
+
+    public TaskSearchServiceImpl(final EntityManager entityManager,
+                                 final TaskSearchIndex searchIndex,
+                                 final ObjectMapper objectMapper,
+                                 @Value("${tasks.page.max-limit:500}") final int maxLimit,
+                                 @Value("${tasks.export.fetch-size:500}") final int exportFetchSize,
+                                 @Value("${tasks.search.statement-timeout-ms:5000}") final long statementTimeout) {
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.taskWriter = objectMapper.writerFor(Task.class)
+                .without(FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+        this.maxLimit = maxLimit;
+        this.exportFetchSize = exportFetchSize;
+        this.statementTimeoutMillis = statementTimeout;
+    }
+
+    @Override
+    public TaskPage findPage(final Predicate predicate,
+                             final String cursor,
+                             final int limit,
+                             final QueryCancellation cancellation) {
+        final int size = pageSize(limit);
+        cancellation.register(entityManager.unwrap(Session.class));
+
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        final List<Task> tasks = selectTasks()
+                .where(ExpressionUtils.allOf(predicate, after(TaskCursor.decode(cursor))))
+                .orderBy(task.createdAt.asc(), task.id.asc())
+                .limit(size + 1)
+                .setHint(QueryHints.SPEC_HINT_TIMEOUT, statementTimeoutMillis)
+                .fetch();
+
+        final List<Task> page = tasks.size() <= size ? tasks : tasks.subList(0, size);
+        cancellation.throwIfCancelled();
+        fetchLabels(page);
+        final String next = tasks.size() <= size ? null : TaskCursor.of(page.get(size - 1)).encode();
+        return new TaskPage(page, next);
+    }
+
+    @Override
+    public List<Task> search(final Predicate predicate,
+                             final String query,
+                             final int limit,
+                             final QueryCancellation cancellation) {
+        if (TaskSearchIndex.tokenize(query).findAny().isEmpty()) {
+            throw new InvalidRequestException("Search query must contain at least one word");
+        }
+        final int size = pageSize(limit);
+        cancellation.register(entityManager.unwrap(Session.class));
+        final List<Long> ranked = searchIndex.search(query);
+
+        // Кандидаты идут по убыванию релевантности: фильтры проверяются порциями, пока не наберётся страница
+        final List<Task> found = new ArrayList<>(size);
+        for (int from = 0; from < ranked.size() && found.size() < size; from += SEARCH_CHUNK_SIZE) {
+            cancellation.throwIfCancelled();
+            final List<Long> chunk = ranked.subList(from, Math.min(from + SEARCH_CHUNK_SIZE, ranked.size()));
+            final Map<Long, Task> matched = selectTasks()
+                    .where(ExpressionUtils.allOf(predicate, task.id.in(chunk)))
+                    .setHint(QueryHints.SPEC_HINT_TIMEOUT, statementTimeoutMillis)
+                    .fetch()
+                    .stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            chunk.stream()
+                    .map(matched::get)
+                    .filter(Objects::nonNull)
+                    .limit(size - found.size())
+                    .forEach(found::add);
+        }
+
+        cancellation.throwIfCancelled();
+        fetchLabels(found);
+        return found;
+    }
+
+    @Override
+    public Task findById(final Long id) {
+        return Optional.ofNullable(selectTasks()
+                        .leftJoin(task.labels).fetchJoin()
+                        .where(task.id.eq(id))
+                        .fetchOne())
+                .orElseThrow(() -> new NoSuchElementException("Not found task with 'id': " + id));
+    }
+
+    @Override
+    public void export(final Predicate predicate, final OutputStream out) throws IOException {
+        // Метки подгружаются пачками через hibernate.default_batch_fetch_size
+        final var query = selectTasks()
+                .where(predicate)
+                .orderBy(task.id.asc())
+                .setHint(QueryHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .createQuery();
+
+        try (Stream<Task> tasks = query.getResultStream();
+             JsonGenerator generator = taskWriter.createGenerator(out)) {
+            int written = 0;
+            for (final Iterator<Task> iterator = tasks.iterator(); iterator.hasNext();) {
+                taskWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                written++;
+                // Курсор читает вперёд, а уже выгруженные задачи не должны копиться в контексте
+                if (written % exportFetchSize == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    // author, executor и taskStatus приходят тем же запросом, что и задачи
+    private JPAQuery<Task> selectTasks() {
+        return new JPAQuery<Task>(entityManager)
+                .select(task)
+                .from(task)
+                .leftJoin(task.author).fetchJoin()
+                .leftJoin(task.executor).fetchJoin()
+                .leftJoin(task.taskStatus).fetchJoin();
+    }
+
+    // Метки отдельным запросом: fetch join коллекции вместе с limit Hibernate применил бы в памяти.
+    // Найденные задачи уже в контексте, поэтому запрос лишь инициализирует их коллекции labels
+    private void fetchLabels(final List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        new JPAQuery<Task>(entityManager)
+                .select(task)
+                .distinct()
+                .from(task)
+                .leftJoin(task.labels).fetchJoin()
+                .where(task.id.in(tasks.stream().map(Task::getId).toList()))
+                .setHint(QueryHints.SPEC_HINT_TIMEOUT, statementTimeoutMillis)
+                .fetch();
+    }
+
+    // Слишком большой limit урезается до tasks.page.max-limit, неположительный - ошибка клиента
+    private int pageSize(final int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be positive, got " + limit);
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private Predicate after(final TaskCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return task.createdAt.gt(cursor.createdAt())
+                .or(task.createdAt.eq(cursor.createdAt()).and(task.id.gt(cursor.id())));
+    }
+}
@@ -1,13 +1,17 @@
 package hexlet.code.service;
 
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.UserDto;
 import hexlet.code.model.User;
+import java.util.Set;
 
 public interface UserService {
 
     User createNewUser(UserDto userDto);
 
-    User updateUser(long id, UserDto userDto);
+    User updateUser(long id, UserDto userDto, Set<Long> expectedVersions);
+
+    User patchUser(long id, MergePatch<UserDto> patch, Set<Long> expectedVersions);
 
     Long getCurrentUserId();
 
@@ -1,9 +1,14 @@
 package hexlet.code.service;
 
+import hexlet.code.component.VersionETags;
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.UserDto;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
+import java.util.Set;
+import javax.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,6 +28,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final EntityManager entityManager;
+
+    private final RefreshTokenService refreshTokenService;
+
     @Override
     public User createNewUser(final UserDto userDto) {
         final User user = new User();
@@ -34,28 +43,64 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
-    public User updateUser(final long id, final UserDto userDto) {
-        final User userToUpdate = userRepository.findById(id).get();
+    public User updateUser(final long id, final UserDto userDto, final Set<Long> expectedVersions) {
+        final User userToUpdate = findForUpdate(id, expectedVersions);
         userToUpdate.setEmail(userDto.getEmail());
         userToUpdate.setFirstName(userDto.getFirstName());
         userToUpdate.setLastName(userDto.getLastName());
         userToUpdate.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        refreshTokenService.revokeAll(id);
         return userRepository.save(userToUpdate);
     }
 
+    // Меняются только переданные поля; с @DynamicUpdate в UPDATE попадают только они.
+    // BCrypt вызывается, только если передан новый пароль
+    @Override
+    public User patchUser(final long id, final MergePatch<UserDto> patch, final Set<Long> expectedVersions) {
+        final User user = findForUpdate(id, expectedVersions);
+        final UserDto values = patch.values();
+        if (patch.has("email")) {
+            user.setEmail(values.getEmail());
+        }
+        if (patch.has("firstName")) {
+            user.setFirstName(values.getFirstName());
+        }
+        if (patch.has("lastName")) {
+            user.setLastName(values.getLastName());
+        }
+        if (patch.has("password")) {
+            user.setPassword(passwordEncoder.encode(values.getPassword()));
+            refreshTokenService.revokeAll(id);
+        }
+        return user;
+    }
+
+    // null - If-Match не передан, проверки версии нет
+    private User findForUpdate(final long id, final Set<Long> expectedVersions) {
+        final User user = userRepository.findById(id).get();
+        VersionETags.checkIfMatch(expectedVersions, user.getVersion(), "User with 'id': " + id);
+        return user;
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public Long getCurrentUserId() {
         return Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getCurrentUser() {
         return userRepository.findById(getCurrentUserId()).get();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(final String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
+        // Поиск по natural id идёт через кэш email -> id и кэш сущностей, без SQL при повторном входе
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username)
                 .map(this::buildSpringUser)
                 .orElseThrow(() -> new UsernameNotFoundException("Not found user with 'username': " + username));
     }
@@ -0,0 +1,49 @@
+package hexlet.code.component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void limitsEachKeySeparately() {
+        final AdmissionControl admissionControl = new AdmissionControl(1, 2, 0.01, 1, 10, 100, meterRegistry);
+
+        assertEquals(0, admissionControl.acquireForUser("1"));
+        assertEquals(0, admissionControl.acquireForUser("1"));
+        assertEquals(1, admissionControl.acquireForUser("1"));
+        assertEquals(0, admissionControl.acquireForUser("2"));
+
+        // Пользователи и адреса в разных вёдрах, ожидание округляется вверх до секунд
+        assertEquals(0, admissionControl.acquireForClient("1"));
+        assertEquals(100, admissionControl.acquireForClient("1"));
+        assertEquals(0, admissionControl.acquireForClient("10.0.0.1"));
+
+        assertEquals(2, rejected("rate-limit"));
+    }
+
+    @Test
+    public void shedsRequestsOverInFlightLimit() {
+        final AdmissionControl admissionControl = new AdmissionControl(1, 1, 1, 1, 2, 100, meterRegistry);
+
+        assertTrue(admissionControl.enter());
+        assertTrue(admissionControl.enter());
+        assertFalse(admissionControl.enter());
+        assertEquals(2, meterRegistry.get("admission.in-flight").gauge().value());
+
+        admissionControl.exit();
+        assertTrue(admissionControl.enter());
+        assertEquals(1, rejected("overload"));
+    }
+
+    private double rejected(final String reason) {
+        return meterRegistry.get("admission.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,58 @@
+package hexlet.code.component;
+
+import hexlet.code.component.TaskSearchIndex.Document;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskSearchIndexTest {
+
+    @Test
+    public void readersSeeOldIndexUntilRebuildSwaps() {
+        final TaskSearchIndex index = new TaskSearchIndex();
+        index.index(1L, "old name", null);
+
+        index.rebuild(Stream.of(new Document(2L, "fresh", null)).peek(document -> {
+            assertEquals(List.of(1L), index.search("old"));
+            assertEquals(List.of(), index.search("fresh"));
+        }));
+
+        assertEquals(List.of(), index.search("old"));
+        assertEquals(List.of(2L), index.search("fresh"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void changesDuringRebuildAreKept() {
+        final TaskSearchIndex index = new TaskSearchIndex();
+
+        // Загрузка прочитала строки до того, как закоммитились параллельные изменения
+        index.rebuild(Stream.of(new Document(1L, "stale", null), new Document(2L, "kept", null)).peek(document -> {
+            if (document.id() == 2L) {
+                index.index(1L, "renamed", null);
+                index.index(3L, "added", null);
+                index.remove(2L);
+            }
+        }));
+
+        assertEquals(List.of(), index.search("stale"));
+        assertEquals(List.of(1L), index.search("renamed"));
+        assertEquals(List.of(3L), index.search("added"));
+        assertEquals(List.of(), index.search("kept"));
+    }
+
+    @Test
+    public void rareWordNarrowsCommonOne() {
+        final TaskSearchIndex index = new TaskSearchIndex();
+        LongStream.range(0, 100).forEach(id -> index.index(id, "common task " + id, null));
+        index.index(100L, "common rare", null);
+        index.index(101L, "rare", "common");
+        index.index(102L, "rarely common", null);
+
+        assertEquals(List.of(100L, 102L, 101L), index.search("common rare"));
+        assertEquals(List.of(), index.search("rare task"));
+    }
+}
@@ -0,0 +1,40 @@
+package hexlet.code.component;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void allowsBurstThenRefillsAtRate() {
+        final long start = 1_000 * SECOND;
+        final TokenBucket bucket = new TokenBucket(2, 3, start);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(start));
+        }
+        final long wait = bucket.tryAcquire(start);
+        assertEquals(SECOND / 2, wait);
+
+        assertEquals(0, bucket.tryAcquire(start + wait));
+        assertTrue(bucket.tryAcquire(start + wait) > 0);
+    }
+
+    @Test
+    public void idleBucketIsFullAgain() {
+        final long start = 1_000 * SECOND;
+        final TokenBucket bucket = new TokenBucket(1, 2, start);
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start));
+
+        final long later = start + bucket.refillNanos();
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+}
@@ -0,0 +1,90 @@
+package hexlet.code.config;
+
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FingerprintedLiquibaseTest {
+
+    private static final String CHANGELOG = "classpath:db/changelog/changelog-master.xml";
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:fingerprint-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void unchangedChangelogIsSkipped() throws Exception {
+        final FingerprintedLiquibase first = migrate();
+        assertFalse(first.isSkipped());
+        final List<String> fingerprint = storedFingerprint();
+        assertThat(fingerprint).hasSize(1);
+        final long ranChangeSets = ranChangeSets();
+
+        // Без update нет ни блокировки, ни новых строк в DATABASECHANGELOG
+        jdbcTemplate.update("drop table databasechangeloglock");
+        final FingerprintedLiquibase second = migrate();
+        assertTrue(second.isSkipped());
+        assertEquals(ranChangeSets, ranChangeSets());
+        assertEquals(fingerprint, storedFingerprint());
+    }
+
+    @Test
+    public void fingerprintMismatchRunsUpdate() throws Exception {
+        migrate();
+        final List<String> fingerprint = storedFingerprint();
+        jdbcTemplate.update("update liquibase_fingerprint set fingerprint = 'outdated'");
+
+        final FingerprintedLiquibase liquibase = migrate();
+        assertFalse(liquibase.isSkipped());
+        assertEquals(fingerprint, storedFingerprint());
+    }
+
+    @Test
+    public void failedDeferredValidationResetsFingerprint() throws Exception {
+        migrate();
+        final FingerprintedLiquibase skipped = migrate();
+        assertTrue(skipped.isSkipped());
+
+        skipped.validateDeferred();
+        assertThat(storedFingerprint()).hasSize(1);
+
+        // Применённые changeset не совпадают с changelog: следующий старт выполнит обычный update
+        jdbcTemplate.update("update databasechangelog set md5sum = '8:00000000000000000000000000000000'");
+        skipped.validateDeferred();
+        assertThat(storedFingerprint()).isEmpty();
+    }
+
+    private FingerprintedLiquibase migrate() throws Exception {
+        final FingerprintedLiquibase liquibase = new FingerprintedLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGELOG);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        return liquibase;
+    }
+
+    private List<String> storedFingerprint() {
+        return jdbcTemplate.queryForList("select fingerprint from liquibase_fingerprint", String.class);
+    }
+
+    private long ranChangeSets() {
+        return jdbcTemplate.queryForObject("select count(*) from databasechangelog", Long.class);
+    }
+}
@@ -0,0 +1,97 @@
+package hexlet.code.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.component.JsonListCache;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static hexlet.code.config.security.SecurityConfig.DEFAULT_AUTHORITIES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        final DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                database("primary"),
+                database("replica"),
+                Duration.ofMinutes(1),
+                100
+        ));
+        final var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+        assertEquals("primary", readWrite.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    public void writerReadsFromPrimaryWithinStickyWindow() {
+        authenticate("1");
+        readWrite.executeWithoutResult(status -> currentDatabase());
+        assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+
+        authenticate("2");
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    public void cachedListsAreLoadedFromPrimary() {
+        final JsonListCache cache = new JsonListCache(new ObjectMapper());
+        authenticate("1");
+
+        // Чужой readOnly-запрос сразу после инвалидации не должен закэшировать список с реплики
+        final JsonListCache.Snapshot snapshot = readOnly.execute(status ->
+                cache.get("labels", () -> List.of(currentDatabase())));
+        assertEquals("[\"primary\"]", new String(snapshot.json(), StandardCharsets.UTF_8));
+
+        // Вызывающий писателем не становится: обычное чтение по-прежнему идёт на реплику
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private static void authenticate(final String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, DEFAULT_AUTHORITIES)
+        );
+    }
+
+    private static DataSource database(final String name) {
+        final var dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        final var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists marker (name varchar(16))");
+        jdbc.execute("delete from marker");
+        jdbc.update("insert into marker values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,57 @@
+package hexlet.code.config;
+
+import java.util.UUID;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UsersSequenceChangelogTest {
+
+    private static final String CHANGELOG = "classpath:db/changelog/changelog-master.xml";
+    // allocationSize генератора users_seq в User
+    private static final long ALLOCATION_SIZE = 50;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:users-seq-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void newUserDoesNotCollideWithExistingRows() throws Exception {
+        // База, в которую пользователи попали до появления users_seq
+        migrate();
+        jdbcTemplate.update("drop sequence users_seq");
+        jdbcTemplate.update("delete from databasechangelog where id like '1792342000000-%'");
+        jdbcTemplate.update("insert into users (id, email, version) values (1, 'first@mail.com', 0)");
+        jdbcTemplate.update("insert into users (id, email, version) values (120, 'second@mail.com', 0)");
+
+        migrate();
+
+        // pooled-оптимизатор Hibernate выдаёт id из (значение - allocationSize, значение]
+        final long firstId = jdbcTemplate.queryForObject("select next value for users_seq", Long.class)
+                - ALLOCATION_SIZE + 1;
+        assertEquals(121, firstId);
+        jdbcTemplate.update("insert into users (id, email, version) values (?, 'new@mail.com', 0)", firstId);
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from users", Long.class));
+    }
+
+    private void migrate() throws Exception {
+        final SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(CHANGELOG);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+}
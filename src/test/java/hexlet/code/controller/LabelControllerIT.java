@@ -0,0 +1,175 @@
+package hexlet.code.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.dto.MergePatch;
+import hexlet.code.model.Label;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.utils.TestUtils;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.controller.LabelController.ID;
+import static hexlet.code.controller.LabelController.LABEL_CONTROLLER_PATH;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME;
+import static hexlet.code.utils.TestUtils.fromJson;
+import static hexlet.code.utils.TestUtils.sqlStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForIT.class)
+public class LabelControllerIT {
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private TestUtils utils;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        utils.regDefaultUser();
+    }
+
+    @AfterEach
+    public void clear() {
+        labelRepository.deleteAll();
+        utils.tearDown();
+    }
+
+    @Test
+    public void labelListIsCachedWithETag() throws Exception {
+        createLabel("bug");
+        final MockHttpServletResponse first = utils.perform(get(LABEL_CONTROLLER_PATH), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        final String etag = first.getHeader(ETAG);
+        assertNotNull(etag);
+        assertThat(labelNames(first)).containsExactly("bug");
+
+        // Снимок и ETag из кэша: ни БД, ни Jackson
+        utils.perform(get(LABEL_CONTROLLER_PATH).header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isNotModified())
+                .andExpect(sqlStatements(0));
+
+        // Создание метки через контроллер сбрасывает снимок
+        createLabel("feature");
+        final MockHttpServletResponse changed = utils.perform(
+                        get(LABEL_CONTROLLER_PATH).header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        assertNotEquals(etag, changed.getHeader(ETAG));
+        assertThat(labelNames(changed)).containsExactlyInAnyOrder("bug", "feature");
+    }
+
+    @Test
+    public void patchLabelRejectsNullNameAndUnknownFields() throws Exception {
+        createLabel("bug");
+        final Label label = labelRepository.findAll().get(0);
+
+        utils.perform(patch(LABEL_CONTROLLER_PATH + ID, label.getId())
+                        .content("{\"name\": null}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isUnprocessableEntity());
+        utils.perform(patch(LABEL_CONTROLLER_PATH + ID, label.getId())
+                        .content("{\"color\": \"red\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isBadRequest());
+        assertEquals("bug", labelRepository.findById(label.getId()).orElseThrow().getName());
+        assertThat(labelNames(utils.perform(get(LABEL_CONTROLLER_PATH), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse())).containsExactly("bug");
+
+        utils.perform(patch(LABEL_CONTROLLER_PATH + ID, label.getId())
+                        .content("{\"name\": \"defect\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isOk());
+        assertEquals("defect", labelRepository.findById(label.getId()).orElseThrow().getName());
+        // Снимок списка сбрасывается после коммита патча
+        assertThat(labelNames(utils.perform(get(LABEL_CONTROLLER_PATH), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse())).containsExactly("defect");
+    }
+
+    @Test
+    public void conditionalRequestsFollowLabelVersion() throws Exception {
+        createLabel("bug");
+        final Long labelId = labelRepository.findAll().get(0).getId();
+        final String etag = utils.perform(get(LABEL_CONTROLLER_PATH + ID, labelId), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotNull(etag);
+
+        utils.perform(get(LABEL_CONTROLLER_PATH + ID, labelId).header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isNotModified())
+                .andExpect(sqlStatements(1));
+
+        final String newEtag = utils.perform(put(LABEL_CONTROLLER_PATH + ID, labelId)
+                        .header(IF_MATCH, etag)
+                        .content("{\"name\": \"defect\"}")
+                        .contentType(APPLICATION_JSON), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotEquals(etag, newEtag);
+
+        utils.perform(patch(LABEL_CONTROLLER_PATH + ID, labelId)
+                        .header(IF_MATCH, etag)
+                        .content("{\"name\": \"stale\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isPreconditionFailed());
+        utils.perform(get(LABEL_CONTROLLER_PATH + ID, labelId).header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isOk());
+        utils.perform(patch(LABEL_CONTROLLER_PATH + ID, labelId)
+                        .header(IF_MATCH, newEtag)
+                        .content("{\"name\": \"feature\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isOk());
+        assertEquals("feature", labelRepository.findById(labelId).orElseThrow().getName());
+    }
+
+    private void createLabel(final String name) throws Exception {
+        utils.perform(post(LABEL_CONTROLLER_PATH)
+                        .content("{\"name\": \"" + name + "\"}")
+                        .contentType(APPLICATION_JSON), TEST_USERNAME)
+                .andExpect(status().isCreated());
+    }
+
+    private static List<Object> labelNames(final MockHttpServletResponse response) throws Exception {
+        return fromJson(response.getContentAsString(), new TypeReference<List<Map<String, Object>>>() {
+        }).stream().map(label -> label.get("name")).toList();
+    }
+}
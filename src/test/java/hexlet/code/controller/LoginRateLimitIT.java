@@ -0,0 +1,46 @@
+package hexlet.code.controller;
+
+import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Вход ограничивается до JWTAuthenticationFilter, поэтому лишние попытки не доходят до BCrypt
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = RANDOM_PORT,
+        classes = SpringConfigForIT.class,
+        properties = {
+            "rate-limit.public.rate-per-sec=0.01",
+            "rate-limit.public.burst=2"
+        }
+)
+public class LoginRateLimitIT {
+
+    @Autowired
+    private TestUtils utils;
+
+    @Test
+    public void loginAttemptsOverPublicLimitAreRejected() throws Exception {
+        utils.login(TEST_USERNAME, "wrong").andExpect(status().isUnauthorized());
+        utils.login(TEST_USERNAME, "wrong").andExpect(status().isUnauthorized());
+
+        utils.login(TEST_USERNAME, "wrong")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(RETRY_AFTER, "100"));
+    }
+}
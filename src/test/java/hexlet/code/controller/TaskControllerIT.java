@@ -0,0 +1,568 @@
+package hexlet.code.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.dto.MergePatch;
+import hexlet.code.dto.TaskBulkUpdateDto;
+import hexlet.code.dto.UserDto;
+import hexlet.code.filter.SqlStatisticsFilter;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.utils.TestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.config.TaskSearchExecutorConfiguration.TASK_SEARCH_EXECUTOR;
+import static hexlet.code.controller.TaskController.BATCH;
+import static hexlet.code.controller.TaskController.BULK;
+import static hexlet.code.controller.TaskController.EXPORT;
+import static hexlet.code.controller.TaskController.ID;
+import static hexlet.code.controller.TaskController.NEXT_CURSOR_HEADER;
+import static hexlet.code.controller.TaskController.SEARCH;
+import static hexlet.code.controller.TaskController.STATS;
+import static hexlet.code.controller.TaskController.TASK_CONTROLLER_PATH;
+import static hexlet.code.filter.SqlStatisticsFilter.STATEMENTS_HEADER;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME_2;
+import static hexlet.code.utils.TestUtils.asJson;
+import static hexlet.code.utils.TestUtils.fromJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForIT.class)
+public class TaskControllerIT {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier(TASK_SEARCH_EXECUTOR)
+    private ThreadPoolTaskExecutor taskSearchExecutor;
+
+    @Autowired
+    private TestUtils utils;
+
+    private User author;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        utils.regDefaultUser();
+        author = utils.getUserByEmail(TEST_USERNAME);
+    }
+
+    @AfterEach
+    public void clear() {
+        taskRepository.deleteAll();
+        labelRepository.deleteAll();
+        taskStatusRepository.deleteAll();
+        utils.tearDown();
+    }
+
+    @Test
+    public void getFilteredTasksStatementCountDoesNotDependOnPageSize() throws Exception {
+        createTasks(3);
+        final long fewTasks = countStatements(get(TASK_CONTROLLER_PATH));
+
+        createTasks(20);
+        final long manyTasks = countStatements(get(TASK_CONTROLLER_PATH));
+
+        // Задачи с author/executor/taskStatus и отдельный запрос за метками
+        assertEquals(fewTasks, manyTasks);
+        assertThat(manyTasks).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void getFilteredTasksPagesWithCursor() throws Exception {
+        createTasks(5);
+        final String token = utils.buildToken(author.getId());
+
+        final List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            final var request = get(TASK_CONTROLLER_PATH).param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            final var response = utils.awaitAsync(utils.performWithToken(request, token))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+            final List<Long> page = ids(response.getContentAsString());
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            seen.addAll(page);
+            cursor = response.getHeader(NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(5)
+                .isSorted()
+                .containsExactlyInAnyOrderElementsOf(taskRepository.findAll().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void getFilteredTasksRejectsBadCursorAndLimit() throws Exception {
+        final String token = utils.buildToken(author.getId());
+
+        utils.awaitAsync(utils.performWithToken(get(TASK_CONTROLLER_PATH).param("cursor", "not a cursor"), token))
+                .andExpect(status().isBadRequest());
+        utils.awaitAsync(utils.performWithToken(get(TASK_CONTROLLER_PATH).param("limit", "0"), token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getTaskByIdIsSingleStatement() throws Exception {
+        createTasks(1);
+        final Long taskId = taskRepository.findAll().get(0).getId();
+
+        assertEquals(1, countStatements(get(TASK_CONTROLLER_PATH + ID, taskId)));
+    }
+
+    @Test
+    public void conditionalRequestsFollowTaskVersion() throws Exception {
+        createTasks(1);
+        final Task created = taskRepository.findAll().get(0);
+        final Long taskId = created.getId();
+        final String token = utils.buildToken(author.getId());
+        final String etag = utils.performWithToken(get(TASK_CONTROLLER_PATH + ID, taskId), token)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotNull(etag);
+
+        utils.performWithToken(get(TASK_CONTROLLER_PATH + ID, taskId).header(IF_NONE_MATCH, etag), token)
+                .andExpect(status().isNotModified());
+
+        final String newEtag = utils.performWithToken(patch(TASK_CONTROLLER_PATH + ID, taskId)
+                        .header(IF_MATCH, etag)
+                        .content("{\"name\": \"patched\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), token)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotEquals(etag, newEtag);
+        utils.performWithToken(get(TASK_CONTROLLER_PATH + ID, taskId).header(IF_NONE_MATCH, newEtag), token)
+                .andExpect(status().isNotModified());
+
+        final Map<String, Object> update = Map.of(
+                "name", "updated",
+                "description", "description",
+                "executorId", author.getId(),
+                "taskStatusId", created.getTaskStatus().getId(),
+                "labelIds", List.of());
+        utils.performWithToken(put(TASK_CONTROLLER_PATH + ID, taskId)
+                        .header(IF_MATCH, etag)
+                        .content(asJson(update))
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("patched", taskRepository.findById(taskId).orElseThrow().getName());
+
+        final String updatedEtag = utils.performWithToken(put(TASK_CONTROLLER_PATH + ID, taskId)
+                        .header(IF_MATCH, newEtag)
+                        .content(asJson(update))
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotEquals(newEtag, updatedEtag);
+        assertEquals("updated", taskRepository.findById(taskId).orElseThrow().getName());
+    }
+
+    @Test
+    public void deleteTaskChecksAuthorWithoutLoadingTask() throws Exception {
+        createTasks(1);
+        final Long taskId = taskRepository.findAll().get(0).getId();
+        utils.regUser(new UserDto(TEST_USERNAME_2, "fname", "lname", "pwd"));
+        final User other = utils.getUserByEmail(TEST_USERNAME_2);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        utils.performWithToken(delete(TASK_CONTROLLER_PATH + ID, taskId), utils.buildToken(other.getId()))
+                .andExpect(status().isForbidden());
+
+        // Один запрос за author_id, ни задача, ни автор не загружаются
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(taskRepository.existsById(taskId));
+
+        utils.performWithToken(delete(TASK_CONTROLLER_PATH + ID, taskId), utils.buildToken(author.getId()))
+                .andExpect(status().isOk());
+        assertFalse(taskRepository.existsById(taskId));
+    }
+
+    @Test
+    public void exportStreamsMatchingTasksAsNdjson() throws Exception {
+        createTasks(3);
+        final String token = utils.buildToken(author.getId());
+
+        assertThat(exportNames(get(TASK_CONTROLLER_PATH + EXPORT), token))
+                .containsExactly("task 0", "task 1", "task 2");
+        assertThat(exportNames(get(TASK_CONTROLLER_PATH + EXPORT).param("name", "task 1"), token))
+                .containsExactly("task 1");
+    }
+
+    // Выгрузка не буферизуется ради заголовков X-SQL-*, но её SQL из пула MVC учитывается в статистике запроса
+    @Test
+    public void exportIsNotBufferedAndItsSqlIsCounted() throws Exception {
+        createTasks(3);
+        final String token = utils.buildToken(author.getId());
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final var result = utils.awaitAsync(utils.performWithToken(get(TASK_CONTROLLER_PATH + EXPORT), token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(STATEMENTS_HEADER))
+                .andReturn();
+
+        assertThat(SqlStatisticsFilter.statistics(result.getRequest()).statementCount())
+                .isPositive()
+                .isEqualTo(statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void searchRanksNameMatchesFirstAndFollowsChanges() throws Exception {
+        final TaskStatus taskStatus = taskStatusRepository.save(TaskStatus.builder().name("new").build());
+        final Task inDescription = taskRepository.save(Task.builder()
+                .name("Write docs")
+                .description("Describe the login page")
+                .author(author)
+                .taskStatus(taskStatus)
+                .build());
+        final Task inName = taskRepository.save(Task.builder()
+                .name("Fix login bug")
+                .author(author)
+                .taskStatus(taskStatus)
+                .build());
+
+        assertThat(searchIds("LOG")).containsExactly(inName.getId(), inDescription.getId());
+        assertThat(searchIds("log page")).containsExactly(inDescription.getId());
+
+        taskRepository.deleteById(inName.getId());
+        assertThat(searchIds("login")).containsExactly(inDescription.getId());
+    }
+
+    @Test
+    public void statisticsFollowTaskChanges() throws Exception {
+        createTasks(2);
+        final Task first = taskRepository.findAll().get(0);
+
+        assertThat(stats()).containsEntry("total", 2)
+                .containsEntry("byExecutor", Map.of(author.getId().toString(), 2));
+
+        final String firstStatusId = first.getTaskStatus().getId().toString();
+        taskRepository.deleteById(first.getId());
+
+        final Map<String, Object> afterDelete = stats();
+        assertThat(afterDelete).containsEntry("total", 1)
+                .containsEntry("byExecutor", Map.of(author.getId().toString(), 1));
+        assertThat((Map<?, ?>) afterDelete.get("byStatus")).hasSize(1).doesNotContainKey(firstStatusId);
+    }
+
+    // Задача без @Version не получает события обновления, когда меняются только её метки
+    @Test
+    public void labelOnlyChangesUpdateStatistics() throws Exception {
+        createTasks(1);
+        final Long taskId = taskRepository.findAll().get(0).getId();
+        final Label added = labelRepository.save(Label.builder().name("added").build());
+
+        transactionTemplate.executeWithoutResult(status ->
+                taskRepository.findById(taskId).orElseThrow().getLabels().add(added));
+        assertThat((Map<?, ?>) stats().get("byLabel")).hasSize(2).containsEntry(added.getId().toString(), 1);
+
+        transactionTemplate.executeWithoutResult(status -> taskRepository.findById(taskId).orElseThrow()
+                .getLabels()
+                .removeIf(label -> label.getId().equals(added.getId())));
+        assertThat((Map<?, ?>) stats().get("byLabel")).hasSize(1).doesNotContainKey(added.getId().toString());
+    }
+
+    @Test
+    public void patchTaskReplacesLabelsAndRejectsInvalidFields() throws Exception {
+        createTasks(1);
+        final Long taskId = taskRepository.findAll().get(0).getId();
+        final Label first = labelRepository.save(Label.builder().name("first").build());
+        final Label second = labelRepository.save(Label.builder().name("second").build());
+        final String token = utils.buildToken(author.getId());
+
+        utils.performWithToken(patch(TASK_CONTROLLER_PATH + ID, taskId)
+                        .content("{\"name\": null}")
+                        .contentType(MergePatch.MEDIA_TYPE), token)
+                .andExpect(status().isUnprocessableEntity());
+        utils.performWithToken(patch(TASK_CONTROLLER_PATH + ID, taskId)
+                        .content("{\"priority\": 1}")
+                        .contentType(MergePatch.MEDIA_TYPE), token)
+                .andExpect(status().isBadRequest());
+
+        utils.performWithToken(patch(TASK_CONTROLLER_PATH + ID, taskId)
+                        .content(asJson(Map.of("labelIds", List.of(first.getId(), second.getId()))))
+                        .contentType(MergePatch.MEDIA_TYPE), token)
+                .andExpect(status().isOk());
+
+        // Метки заменены целиком, остальные поля не тронуты
+        transactionTemplate.executeWithoutResult(status -> {
+            final Task task = taskRepository.findById(taskId).orElseThrow();
+            assertEquals("task 0", task.getName());
+            assertThat(task.getLabels()).extracting(Label::getId)
+                    .containsExactlyInAnyOrder(first.getId(), second.getId());
+        });
+    }
+
+    @Test
+    public void bulkOperationsAffectOnlyMatchingTasks() throws Exception {
+        createTasks(3);
+        final TaskStatus done = taskStatusRepository.save(TaskStatus.builder().name("done").build());
+        final String token = utils.buildToken(author.getId());
+
+        final var update = patch(TASK_CONTROLLER_PATH + BULK)
+                .param("name", "task 1")
+                .content(asJson(new TaskBulkUpdateDto(done.getId(), null, null, null)))
+                .contentType(APPLICATION_JSON);
+        utils.performWithToken(update, token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").value(1));
+        final Map<?, ?> byStatus = (Map<?, ?>) stats().get("byStatus");
+        assertThat(byStatus).hasSize(3).containsEntry(done.getId().toString(), 1);
+
+        utils.performWithToken(delete(TASK_CONTROLLER_PATH + BULK).param("taskStatus", done.getId().toString()), token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").value(1));
+        assertEquals(2, taskRepository.count());
+    }
+
+    @Test
+    public void bulkOperationsRequireFilterAndChanges() throws Exception {
+        createTasks(2);
+        final TaskStatus done = taskStatusRepository.save(TaskStatus.builder().name("done").build());
+        final String token = utils.buildToken(author.getId());
+
+        utils.performWithToken(delete(TASK_CONTROLLER_PATH + BULK), token)
+                .andExpect(status().isBadRequest());
+        utils.performWithToken(patch(TASK_CONTROLLER_PATH + BULK)
+                        .content(asJson(new TaskBulkUpdateDto(done.getId(), null, null, null)))
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isBadRequest());
+        utils.performWithToken(patch(TASK_CONTROLLER_PATH + BULK)
+                        .param("name", "task 1")
+                        .content("{}")
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isBadRequest());
+        assertEquals(2, taskRepository.count());
+        assertThat((Map<?, ?>) stats().get("byStatus")).doesNotContainKey(done.getId().toString());
+    }
+
+    @Test
+    public void batchReportsInvalidItemsAndSavesTheRest() throws Exception {
+        createTasks(1);
+        final Task existing = taskRepository.findAll().get(0);
+        final Long taskStatusId = existing.getTaskStatus().getId();
+        final String token = utils.buildToken(author.getId());
+
+        final List<Object> dtos = new ArrayList<>();
+        dtos.add(Map.of("name", "created", "taskStatusId", taskStatusId));
+        dtos.add(null);
+        dtos.add(Map.of("name", "unknown status", "taskStatusId", -1));
+        utils.performWithToken(post(TASK_CONTROLLER_PATH + BATCH)
+                        .content(asJson(dtos))
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.tasks[*].name", contains("created")))
+                .andExpect(jsonPath("$.errors[*].index", contains(1, 2)));
+        assertEquals(2, taskRepository.count());
+
+        final List<Object> items = new ArrayList<>();
+        items.add(Map.of("id", existing.getId(), "task", Map.of("name", "renamed", "taskStatusId", taskStatusId)));
+        items.add(Map.of("id", existing.getId(), "task", Map.of("name", "again", "taskStatusId", taskStatusId)));
+        items.add(null);
+        items.add(Map.of("id", -1, "task", Map.of("name", "missing", "taskStatusId", taskStatusId)));
+        utils.performWithToken(put(TASK_CONTROLLER_PATH + BATCH)
+                        .content(asJson(items))
+                        .contentType(APPLICATION_JSON), token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[*].name", contains("renamed")))
+                .andExpect(jsonPath("$.errors[*].index", contains(1, 2, 3)));
+        assertEquals("renamed", taskRepository.findById(existing.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    public void timedOutPageRequestReturns503AndItsQueryIsCancelled() throws Exception {
+        createTasks(1);
+        final String token = utils.buildToken(author.getId());
+
+        // Все потоки поиска заняты, поэтому запрос ждёт в очереди, пока не истечёт срок
+        final int threads = taskSearchExecutor.getMaxPoolSize();
+        final CountDownLatch busy = new CountDownLatch(threads);
+        final CountDownLatch release = new CountDownLatch(1);
+        IntStream.range(0, threads).forEach(i -> taskSearchExecutor.execute(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        busy.await();
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        try {
+            final ResultActions started = utils.performWithToken(get(TASK_CONTROLLER_PATH), token);
+            final MockHttpServletRequest request = started.andReturn().getRequest();
+            final MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+            for (final AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext));
+            }
+            utils.awaitAsync(started).andExpect(status().isServiceUnavailable());
+            statistics.clear();
+        } finally {
+            release.countDown();
+        }
+
+        // Отменённый поиск, дождавшись потока, не выполняет ни одного SQL-запроса
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (taskSearchExecutor.getActiveCount() > 0
+                || !taskSearchExecutor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Task search executor did not drain");
+            Thread.sleep(10);
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private Map<String, Object> stats() throws Exception {
+        final String response = utils.performWithToken(
+                        get(TASK_CONTROLLER_PATH + STATS),
+                        utils.buildToken(author.getId())
+                ).andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return fromJson(response, new TypeReference<>() {
+        });
+    }
+
+    private List<Long> searchIds(final String query) throws Exception {
+        final String response = utils.awaitAsync(utils.performWithToken(
+                        get(TASK_CONTROLLER_PATH + SEARCH).param("q", query),
+                        utils.buildToken(author.getId())
+                )).andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return ids(response);
+    }
+
+    private static List<Long> ids(final String tasksJson) throws Exception {
+        return fromJson(tasksJson, new TypeReference<List<Map<String, Object>>>() {
+        }).stream().map(task -> ((Number) task.get("id")).longValue()).toList();
+    }
+
+    // Одна задача на строку, порядок по id
+    private List<Object> exportNames(final MockHttpServletRequestBuilder request, final String token) throws Exception {
+        final String body = utils.awaitAsync(utils.performWithToken(request, token))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final List<Object> names = new ArrayList<>();
+        for (final String line : body.split("\n")) {
+            names.add(fromJson(line, new TypeReference<Map<String, Object>>() {
+            }).get("name"));
+        }
+        return names;
+    }
+
+    private long countStatements(final MockHttpServletRequestBuilder request) throws Exception {
+        final String token = utils.buildToken(author.getId());
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        utils.awaitAsync(utils.performWithToken(request, token)).andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    // У каждой задачи свои статус и метка, чтобы ленивая загрузка давала по запросу на задачу
+    private void createTasks(final int count) {
+        IntStream.range(0, count).forEach(i -> {
+            final TaskStatus taskStatus = taskStatusRepository.save(TaskStatus.builder()
+                    .name("status " + i)
+                    .build());
+            final Label label = labelRepository.save(Label.builder()
+                    .name("label " + i)
+                    .build());
+            taskRepository.save(Task.builder()
+                    .name("task " + i)
+                    .description("description " + i)
+                    .author(author)
+                    .executor(author)
+                    .taskStatus(taskStatus)
+                    .labels(Set.of(label))
+                    .build());
+        });
+    }
+}
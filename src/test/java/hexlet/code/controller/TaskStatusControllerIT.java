@@ -0,0 +1,110 @@
+package hexlet.code.controller;
+
+import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.dto.MergePatch;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.utils.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.controller.TaskStatusController.ID;
+import static hexlet.code.controller.TaskStatusController.TASK_STATUS_CONTROLLER_PATH;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = SpringConfigForIT.class)
+public class TaskStatusControllerIT {
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private TestUtils utils;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        utils.regDefaultUser();
+    }
+
+    @AfterEach
+    public void clear() {
+        taskStatusRepository.deleteAll();
+        utils.tearDown();
+    }
+
+    @Test
+    public void patchTaskStatusRejectsNullNameAndUnknownFields() throws Exception {
+        final TaskStatus taskStatus = taskStatusRepository.save(TaskStatus.builder().name("new").build());
+
+        utils.perform(patch(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .content("{\"name\": null}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isUnprocessableEntity());
+        utils.perform(patch(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .content("{\"position\": 1}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isBadRequest());
+        assertEquals("new", taskStatusRepository.findById(taskStatus.getId()).orElseThrow().getName());
+
+        utils.perform(patch(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .content("{\"name\": \"done\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isOk());
+        assertEquals("done", taskStatusRepository.findById(taskStatus.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    public void conditionalRequestsFollowTaskStatusVersion() throws Exception {
+        final TaskStatus taskStatus = taskStatusRepository.save(TaskStatus.builder().name("new").build());
+        final String etag = utils.perform(get(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId()), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotNull(etag);
+
+        utils.perform(get(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isNotModified());
+
+        final String newEtag = utils.perform(patch(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .header(IF_MATCH, etag)
+                        .content("{\"name\": \"done\"}")
+                        .contentType(MergePatch.MEDIA_TYPE), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotEquals(etag, newEtag);
+
+        utils.perform(put(TASK_STATUS_CONTROLLER_PATH + ID, taskStatus.getId())
+                        .header(IF_MATCH, etag)
+                        .content("{\"name\": \"stale\"}")
+                        .contentType(APPLICATION_JSON), TEST_USERNAME)
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("done", taskStatusRepository.findById(taskStatus.getId()).orElseThrow().getName());
+    }
+}
@@ -1,12 +1,19 @@
 package hexlet.code.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import hexlet.code.component.VerifiedTokenCache;
 import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.dto.MergePatch;
 import hexlet.code.dto.UserDto;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -16,23 +23,35 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.config.security.SecurityConfig.LOGIN;
+import static hexlet.code.controller.RefreshTokenController.REFRESH;
+import static hexlet.code.controller.RefreshTokenController.REFRESH_TOKEN_HEADER;
 import static hexlet.code.controller.UserController.ID;
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
 import static hexlet.code.utils.TestUtils.TEST_USERNAME;
 import static hexlet.code.utils.TestUtils.TEST_USERNAME_2;
 import static hexlet.code.utils.TestUtils.asJson;
+import static hexlet.code.utils.TestUtils.atMostSqlStatements;
 import static hexlet.code.utils.TestUtils.fromJson;
+import static hexlet.code.utils.TestUtils.sqlStatements;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,6 +67,15 @@ public class UserControllerIT {
     @Autowired
     private TestUtils utils;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @AfterEach
     public void clear() {
         utils.tearDown();
@@ -94,6 +122,144 @@ public class UserControllerIT {
         assertThat(users).hasSize(1);
     }
 
+    @Test
+    public void getUsersStatementCount() throws Exception {
+        utils.regDefaultUser();
+        utils.regUser(new UserDto(TEST_USERNAME_2, "fname", "lname", "pwd"));
+        final User user = userRepository.findByEmail(TEST_USERNAME).get();
+
+        utils.perform(get(USER_CONTROLLER_PATH))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(1));
+
+        // Версия для ETag и сама сущность
+        utils.perform(get(USER_CONTROLLER_PATH + ID, user.getId()), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andExpect(atMostSqlStatements(2));
+    }
+
+    @Test
+    public void verifiedTokenIsCachedBetweenRequests() throws Exception {
+        utils.regDefaultUser();
+        final Long userId = userRepository.findByEmail(TEST_USERNAME).get().getId();
+        final String token = utils.buildToken(userId);
+        final long misses = tokenCache.missCount();
+        final long hits = tokenCache.hitCount();
+
+        utils.performWithToken(get(USER_CONTROLLER_PATH + ID, userId), token).andExpect(status().isOk());
+        // Тот же токен с префиксом Bearer - тот же ключ кэша
+        utils.performWithToken(get(USER_CONTROLLER_PATH + ID, userId), "Bearer " + token)
+                .andExpect(status().isOk());
+
+        assertEquals(misses + 1, tokenCache.missCount());
+        assertEquals(hits + 1, tokenCache.hitCount());
+    }
+
+    @Test
+    public void passwordHashingRunsOnBoundedExecutor() throws Exception {
+        final var latency = meterRegistry.get("password.hashing.latency").timer();
+        final long hashed = latency.count();
+
+        utils.regDefaultUser().andExpect(status().isCreated());
+        utils.login(TEST_USERNAME, utils.getTestRegistrationDto().getPassword()).andExpect(status().isOk());
+        utils.login(TEST_USERNAME, "wrong password").andExpect(status().isUnauthorized());
+
+        // encode при регистрации и два matches при входе
+        assertEquals(hashed + 3, latency.count());
+        assertEquals(0, meterRegistry.get("password.hashing.queue.size").gauge().value());
+    }
+
+    @Test
+    public void loginUsesNaturalIdCacheAndFollowsEmailChange() throws Exception {
+        utils.regDefaultUser();
+        final String password = utils.getTestRegistrationDto().getPassword();
+        utils.login(TEST_USERNAME, password).andExpect(status().isOk());
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        utils.login(TEST_USERNAME, password).andExpect(status().isOk());
+        // email -> id и сам пользователь берутся из кэша, без запроса к users
+        assertEquals(0, statistics.getNaturalIdQueryExecutionCount());
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+
+        final User user = userRepository.findByEmail(TEST_USERNAME).get();
+        final var userDto = new UserDto(TEST_USERNAME_2, user.getFirstName(), user.getLastName(), password);
+        utils.perform(put(USER_CONTROLLER_PATH + ID, user.getId())
+                        .content(asJson(userDto))
+                        .contentType(APPLICATION_JSON), TEST_USERNAME)
+                .andExpect(status().isOk());
+
+        // Смена email вытесняет старое значение natural id
+        utils.login(TEST_USERNAME, password).andExpect(status().isUnauthorized());
+        utils.login(TEST_USERNAME_2, password).andExpect(status().isOk());
+    }
+
+    @Test
+    public void requestsAreTimedPerHandlerAndStatus() throws Exception {
+        utils.regDefaultUser().andExpect(status().isCreated());
+        final Long userId = userRepository.findByEmail(TEST_USERNAME).get().getId();
+        final long before = handlerRequests("UserController.getUserById", "200");
+
+        utils.perform(get(USER_CONTROLLER_PATH + ID, userId), TEST_USERNAME).andExpect(status().isOk());
+        utils.perform(get(USER_CONTROLLER_PATH + ID, userId), TEST_USERNAME).andExpect(status().isOk());
+
+        assertEquals(before + 2, handlerRequests("UserController.getUserById", "200"));
+        assertThat(handlerRequests("UserController.registerNew", "201")).isPositive();
+    }
+
+    private long handlerRequests(final String handler, final String status) {
+        final var timer = meterRegistry.find("http.server.requests")
+                .tag("handler", handler)
+                .tag("status", status)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    public void conditionalRequestsFollowUserVersion() throws Exception {
+        utils.regDefaultUser();
+        final Long userId = userRepository.findByEmail(TEST_USERNAME).get().getId();
+        final String etag = utils.perform(get(USER_CONTROLLER_PATH + ID, userId), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotNull(etag);
+
+        utils.perform(get(USER_CONTROLLER_PATH + ID, userId).header(IF_NONE_MATCH, etag), TEST_USERNAME)
+                .andExpect(status().isNotModified());
+
+        // Строгое сравнение: слабый ETag и чужие версии - 412, а не 400
+        for (final String stale : List.of("W/" + etag, "\"999\"", "\"not-a-version\"", "garbage")) {
+            utils.perform(updateWithIfMatch(userId, "stale", stale), TEST_USERNAME)
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        final String newEtag = utils.perform(updateWithIfMatch(userId, "first", "\"999\", " + etag), TEST_USERNAME)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+        assertNotEquals(etag, newEtag);
+
+        utils.perform(updateWithIfMatch(userId, "second", etag), TEST_USERNAME)
+                .andExpect(status().isPreconditionFailed());
+        utils.perform(updateWithIfMatch(userId, "third", "*"), TEST_USERNAME)
+                .andExpect(status().isOk());
+        assertEquals("third", userRepository.findById(userId).get().getFirstName());
+    }
+
+    private MockHttpServletRequestBuilder updateWithIfMatch(final Long userId,
+                                                            final String firstName,
+                                                            final String ifMatch) throws Exception {
+        final var userDto = new UserDto(TEST_USERNAME, firstName, "lname", "pwd");
+        return put(USER_CONTROLLER_PATH + ID, userId)
+                .header(IF_MATCH, ifMatch)
+                .content(asJson(userDto))
+                .contentType(APPLICATION_JSON);
+    }
+
     @Test
     public void updateUser() throws Exception {
         utils.regDefaultUser();
@@ -113,6 +279,57 @@ public class UserControllerIT {
         assertNotNull(userRepository.findByEmail(TEST_USERNAME_2).orElse(null));
     }
 
+    @Test
+    public void patchUserChangesOnlySuppliedFields() throws Exception {
+        utils.regDefaultUser();
+        final User before = userRepository.findByEmail(TEST_USERNAME).get();
+
+        final var patchRequest = patch(USER_CONTROLLER_PATH + ID, before.getId())
+                .content("{\"lastName\": \"patched\"}")
+                .contentType(MergePatch.MEDIA_TYPE);
+        utils.perform(patchRequest, TEST_USERNAME).andExpect(status().isOk());
+
+        final User after = userRepository.findById(before.getId()).get();
+        assertEquals("patched", after.getLastName());
+        assertEquals(before.getFirstName(), after.getFirstName());
+        // Без пароля в патче хэш не пересчитывается
+        assertEquals(before.getPassword(), after.getPassword());
+
+        final var invalidRequest = patch(USER_CONTROLLER_PATH + ID, before.getId())
+                .content("{\"email\": null}")
+                .contentType(MergePatch.MEDIA_TYPE);
+        utils.perform(invalidRequest, TEST_USERNAME).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void refreshTokenRotatesAndReuseRevokesFamily() throws Exception {
+        utils.regDefaultUser();
+        final UserDto credentials = utils.getTestRegistrationDto();
+        final var login = utils.perform(post(LOGIN)
+                        .content(asJson(Map.of("email", credentials.getEmail(), "password", credentials.getPassword())))
+                        .contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        final String firstRefresh = login.getHeader(REFRESH_TOKEN_HEADER);
+        assertNotNull(firstRefresh);
+
+        final var refreshed = utils.perform(post(LOGIN + REFRESH).header(REFRESH_TOKEN_HEADER, firstRefresh))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        final String secondRefresh = refreshed.getHeader(REFRESH_TOKEN_HEADER);
+        assertNotNull(secondRefresh);
+        utils.performWithToken(get(USER_CONTROLLER_PATH + ID, userRepository.findAll().get(0).getId()),
+                refreshed.getContentAsString()).andExpect(status().isOk());
+
+        // Повторное использование старого токена отзывает и выданный по нему новый
+        utils.perform(post(LOGIN + REFRESH).header(REFRESH_TOKEN_HEADER, firstRefresh))
+                .andExpect(status().isUnauthorized());
+        utils.perform(post(LOGIN + REFRESH).header(REFRESH_TOKEN_HEADER, secondRefresh))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     public void changeEmailButTokenWillBeSame() throws Exception {
         utils.regDefaultUser();
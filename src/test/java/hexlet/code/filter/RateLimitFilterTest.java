@@ -0,0 +1,103 @@
+package hexlet.code.filter;
+
+import hexlet.code.component.AdmissionControl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+public class RateLimitFilterTest {
+
+    private static final String LOGIN = "/api/login";
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void limitsPublicRequestsByClientAddress() throws Exception {
+        final RateLimitFilter filter = filter(admissionControl(1000, 1000, 0.5, 1, 10));
+
+        assertEquals(200, doFilter(filter, login("10.0.0.1")).getStatus());
+        final MockHttpServletResponse limited = doFilter(filter, login("10.0.0.1"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("2", limited.getHeader(RETRY_AFTER));
+
+        assertEquals(200, doFilter(filter, login("10.0.0.2")).getStatus());
+        // Анонимные запросы вне входа и регистрации не ограничиваются
+        assertEquals(200, doFilter(filter, new MockHttpServletRequest("GET", "/api/statuses")).getStatus());
+        assertEquals(200, doFilter(filter, new MockHttpServletRequest("GET", "/api/statuses")).getStatus());
+    }
+
+    @Test
+    public void limitsAuthenticatedRequestsByUser() throws Exception {
+        final RateLimitFilter filter = filter(admissionControl(1, 1, 1000, 1000, 10));
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("1", null, List.of()));
+
+        assertEquals(200, doFilter(filter, new MockHttpServletRequest("GET", "/api/tasks")).getStatus());
+        final MockHttpServletResponse limited = doFilter(filter, new MockHttpServletRequest("GET", "/api/tasks"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader(RETRY_AFTER));
+    }
+
+    @Test
+    public void shedsRequestsOverInFlightLimit() throws Exception {
+        final AdmissionControl admissionControl = admissionControl(1000, 1000, 1000, 1000, 1);
+        final RateLimitFilter filter = filter(admissionControl);
+        assertTrue(admissionControl.enter());
+
+        final MockFilterChain chain = new MockFilterChain();
+        final MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.1"), shed, chain);
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(RETRY_AFTER));
+        assertNull(chain.getRequest());
+
+        // Место освобождается после каждого пропущенного запроса
+        admissionControl.exit();
+        assertEquals(200, doFilter(filter, login("10.0.0.1")).getStatus());
+        assertEquals(200, doFilter(filter, login("10.0.0.1")).getStatus());
+    }
+
+    private static AdmissionControl admissionControl(final double userRate, final int userBurst,
+                                                     final double publicRate, final int publicBurst,
+                                                     final int maxInFlight) {
+        return new AdmissionControl(userRate, userBurst, publicRate, publicBurst, maxInFlight, 100,
+                new SimpleMeterRegistry());
+    }
+
+    private static RateLimitFilter filter(final AdmissionControl admissionControl) {
+        return new RateLimitFilter(new AntPathRequestMatcher(LOGIN, "POST"), admissionControl);
+    }
+
+    private static MockHttpServletRequest login(final String remoteAddr) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletResponse doFilter(final RateLimitFilter filter,
+                                                    final MockHttpServletRequest request) throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        }
+        return response;
+    }
+}
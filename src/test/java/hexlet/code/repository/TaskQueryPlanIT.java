@@ -0,0 +1,202 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.types.Predicate;
+import hexlet.code.config.SpringConfigForIT;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.service.QueryCancellation;
+import hexlet.code.service.TaskCursor;
+import hexlet.code.service.TaskSearchService;
+import hexlet.code.utils.TestUtils;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static hexlet.code.config.SpringConfigForIT.TEST_PROFILE;
+import static hexlet.code.model.QTask.task;
+import static hexlet.code.utils.TestUtils.TEST_USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+// Планы строятся для SQL, который на самом деле генерируют Querydsl и keyset-пагинация
+@AutoConfigureMockMvc
+@ActiveProfiles(TEST_PROFILE)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        webEnvironment = RANDOM_PORT,
+        classes = SpringConfigForIT.class,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "hexlet.code.repository.TaskQueryPlanIT$CapturingInspector"
+)
+public class TaskQueryPlanIT {
+
+    // В плане H2 полный просмотр таблицы помечается как 'PUBLIC.<TABLE>.tableScan'
+    private static final String TABLE_SCAN = "PUBLIC.%s.tableScan";
+    private static final String TASKS = "TASKS";
+    private static final String TASKS_LABELS = "TASKS_LABELS";
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestUtils utils;
+
+    private User author;
+    private TaskStatus taskStatus;
+    private Label label;
+    private Task first;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        utils.regDefaultUser();
+        author = utils.getUserByEmail(TEST_USERNAME);
+        taskStatus = taskStatusRepository.save(TaskStatus.builder().name("status").build());
+        label = labelRepository.save(Label.builder().name("label").build());
+        IntStream.range(0, 3).forEach(i -> taskRepository.save(Task.builder()
+                .name("task " + i)
+                .author(author)
+                .executor(author)
+                .taskStatus(taskStatus)
+                .labels(Set.of(label))
+                .build()));
+        first = taskRepository.findAll().get(0);
+    }
+
+    @AfterEach
+    public void clear() {
+        taskRepository.deleteAll();
+        labelRepository.deleteAll();
+        taskStatusRepository.deleteAll();
+        utils.tearDown();
+    }
+
+    // Фильтр метки - подзапрос exists по tasks_labels: индекс нужен ему, а не внешнему просмотру задач
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of("author", TASKS, (Function<TaskQueryPlanIT, Predicate>) it ->
+                        task.author.id.eq(it.author.getId())),
+                Arguments.of("executor", TASKS, (Function<TaskQueryPlanIT, Predicate>) it ->
+                        task.executor.id.eq(it.author.getId())),
+                Arguments.of("taskStatus", TASKS, (Function<TaskQueryPlanIT, Predicate>) it ->
+                        task.taskStatus.id.eq(it.taskStatus.getId())),
+                Arguments.of("taskStatus and executor", TASKS, (Function<TaskQueryPlanIT, Predicate>) it ->
+                        task.taskStatus.id.eq(it.taskStatus.getId()).and(task.executor.id.eq(it.author.getId()))),
+                Arguments.of("labels", TASKS_LABELS, (Function<TaskQueryPlanIT, Predicate>) it ->
+                        task.labels.any().id.eq(it.label.getId()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filters")
+    public void filterUsesIndex(final String filter,
+                                final String table,
+                                final Function<TaskQueryPlanIT, Predicate> predicate) {
+        assertThat(planOfPageQuery(predicate.apply(this), null))
+                .as("Query plan for '%s' filter", filter)
+                .doesNotContain(TABLE_SCAN.formatted(table));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filters")
+    public void keysetPageUsesIndex(final String filter,
+                                    final String table,
+                                    final Function<TaskQueryPlanIT, Predicate> predicate) {
+        final String cursor = TaskCursor.of(first).encode();
+        assertThat(planOfPageQuery(predicate.apply(this), cursor))
+                .as("Query plan for '%s' filter after cursor", filter)
+                .doesNotContain(TABLE_SCAN.formatted(table));
+    }
+
+    @Test
+    public void unfilteredKeysetPageUsesIndex() {
+        final String cursor = TaskCursor.of(first).encode();
+        assertThat(planOfPageQuery(null, cursor))
+                .as("Query plan for unfiltered page after cursor")
+                .doesNotContain(TABLE_SCAN.formatted(TASKS));
+    }
+
+    // Первый SQL страницы - выборка задач; метки догружаются следующим запросом по id
+    private String planOfPageQuery(final Predicate predicate, final String cursor) {
+        CapturingInspector.STATEMENTS.clear();
+        taskSearchService.findPage(predicate, cursor, 2, new QueryCancellation());
+        final String sql = CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().startsWith("select"))
+                .findFirst()
+                .orElseThrow();
+        return explain(sql);
+    }
+
+    // План H2 не зависит от значений параметров, поэтому подставляются любые значения подходящего типа
+    private String explain(final String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                final ParameterMetaData metaData = statement.getParameterMetaData();
+                for (int i = 1; i <= metaData.getParameterCount(); i++) {
+                    switch (metaData.getParameterType(i)) {
+                        case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE ->
+                                statement.setTimestamp(i, Timestamp.from(Instant.now()));
+                        case Types.VARCHAR, Types.CHAR, Types.CLOB -> statement.setString(i, "x");
+                        default -> statement.setLong(i, 1L);
+                    }
+                }
+                final List<String> plan = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return String.join("\n", plan);
+            }
+        });
+    }
+
+    public static final class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(final String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package hexlet.code.service;
+
+import java.util.concurrent.CancellationException;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryCancellationTest {
+
+    @Test
+    public void cancelStopsRunningQuery() {
+        final Session session = openSession();
+        final QueryCancellation cancellation = new QueryCancellation();
+        cancellation.register(session);
+
+        cancellation.cancel();
+
+        verify(session).cancelQuery();
+        assertThrows(CancellationException.class, cancellation::throwIfCancelled);
+    }
+
+    @Test
+    public void cancelBeforeRegisterPreventsQuery() {
+        final QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+
+        assertThrows(CancellationException.class, () -> cancellation.register(openSession()));
+    }
+
+    @Test
+    public void cancelAfterSessionClosedIsIgnored() {
+        final Session session = mock(Session.class);
+        final QueryCancellation cancellation = new QueryCancellation();
+        cancellation.register(session);
+
+        assertDoesNotThrow(cancellation::cancel);
+        verify(session, never()).cancelQuery();
+    }
+
+    @Test
+    public void cancelRacingWithSessionCloseIsIgnored() {
+        final Session session = openSession();
+        doThrow(new IllegalStateException("Session/EntityManager is closed")).when(session).cancelQuery();
+        final QueryCancellation cancellation = new QueryCancellation();
+        cancellation.register(session);
+
+        assertDoesNotThrow(cancellation::cancel);
+    }
+
+    private static Session openSession() {
+        final Session session = mock(Session.class);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
@@ -11,14 +11,22 @@ import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import static hexlet.code.config.security.SecurityConfig.LOGIN;
 import static hexlet.code.controller.UserController.USER_CONTROLLER_PATH;
+import static hexlet.code.filter.SqlStatisticsFilter.STATEMENTS_HEADER;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.SPRING_SECURITY_FORM_USERNAME_KEY;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 
 @Component
 public class TestUtils {
@@ -66,6 +74,14 @@ public class TestUtils {
         return perform(request);
     }
 
+    public ResultActions login(final String email, final String password) throws Exception {
+        final var request = post(LOGIN)
+                .content(asJson(Map.of("email", email, "password", password)))
+                .contentType(APPLICATION_JSON);
+
+        return perform(request);
+    }
+
     public String buildToken(Object userId) {
         return jwtHelper.expiring(Map.of(SPRING_SECURITY_FORM_USERNAME_KEY, userId));
     }
@@ -89,6 +105,29 @@ public class TestUtils {
         return mockMvc.perform(request);
     }
 
+    // Для DeferredResult-обработчиков: дожидаемся результата и выполняем повторный dispatch
+    public ResultActions awaitAsync(final ResultActions actions) throws Exception {
+        final MvcResult result = actions.andReturn();
+        if (!result.getRequest().isAsyncStarted()) {
+            return actions;
+        }
+        result.getAsyncResult();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    public static ResultMatcher sqlStatements(final long expected) {
+        return header().longValue(STATEMENTS_HEADER, expected);
+    }
+
+    public static ResultMatcher atMostSqlStatements(final long max) {
+        return result -> {
+            final String statements = result.getResponse().getHeader(STATEMENTS_HEADER);
+            assertNotNull(statements, "Response has no " + STATEMENTS_HEADER + " header");
+            assertTrue(Long.parseLong(statements) <= max,
+                    "Expected at most " + max + " SQL statements, but was " + statements);
+        };
+    }
+
     private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
 
     public static String asJson(final Object object) throws JsonProcessingException {